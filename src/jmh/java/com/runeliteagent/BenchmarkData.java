@@ -0,0 +1,243 @@
+package com.runeliteagent;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic inputs shaped like the real ones: conversation histories, the wiki
+ * item mapping and latest prices, plugin descriptors and config keys.
+ */
+final class BenchmarkData
+{
+    private static final String[] MATERIALS = {
+        "Bronze", "Iron", "Steel", "Black", "Mithril", "Adamant", "Rune", "Dragon", "Granite", "Crystal"
+    };
+    private static final String[] ITEMS = {
+        "dagger", "sword", "scimitar", "longsword", "battleaxe", "warhammer", "2h sword", "mace",
+        "full helm", "med helm", "platebody", "chainbody", "platelegs", "plateskirt", "kiteshield",
+        "sq shield", "boots", "gloves", "arrow", "bolts", "dart", "knife", "javelin", "pickaxe", "axe"
+    };
+    private static final String[] SUFFIXES = {"", "(p)", "(p+)", "(p++)", "(g)", "(t)", "(h1)", "(h2)"};
+    private static final String[] WORDS = {
+        "ground", "items", "markers", "idle", "notifier", "agility", "xp", "tracker", "boosts", "information",
+        "grand", "exchange", "item", "prices", "npc", "indicators", "clue", "scroll", "slayer", "barrows",
+        "fishing", "woodcutting", "mining", "cannon", "timers", "loot", "banked", "quest", "helper", "tile"
+    };
+
+    private BenchmarkData()
+    {
+    }
+
+    /**
+     * A tool-heavy conversation: user questions, assistant tool calls and wiki-sized tool results.
+     */
+    static JsonArray history(int messages)
+    {
+        JsonArray history = new JsonArray();
+        for (int i = 0; i < messages; i++)
+        {
+            history.add(message(i));
+        }
+        return history;
+    }
+
+    static JsonObject message(int i)
+    {
+        JsonObject message = new JsonObject();
+        JsonArray content = new JsonArray();
+        JsonObject block = new JsonObject();
+        switch (i % 3)
+        {
+            case 0:
+                message.addProperty("role", "user");
+                block.addProperty("type", "text");
+                block.addProperty("text", "What does Vorkath drop and what is it worth? (" + i + ")");
+                break;
+            case 1:
+                message.addProperty("role", "assistant");
+                block.addProperty("type", "tool_use");
+                block.addProperty("id", "toolu_" + i);
+                block.addProperty("name", "get_wiki_page");
+                JsonObject input = new JsonObject();
+                input.addProperty("title", "Vorkath");
+                block.add("input", input);
+                break;
+            default:
+                message.addProperty("role", "user");
+                block.addProperty("type", "tool_result");
+                block.addProperty("tool_use_id", "toolu_" + (i - 1));
+                block.addProperty("content", wikiText(2000, i));
+                break;
+        }
+        content.add(block);
+        message.add("content", content);
+        return message;
+    }
+
+    static String wikiText(int length, long seed)
+    {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length)
+        {
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+            sb.append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        return sb.toString();
+    }
+
+    static List<String> itemNames()
+    {
+        List<String> names = new ArrayList<>();
+        for (String material : MATERIALS)
+        {
+            for (String item : ITEMS)
+            {
+                for (String suffix : SUFFIXES)
+                {
+                    names.add(suffix.isEmpty() ? material + " " + item : material + " " + item + " " + suffix);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * The {@code /mapping} document for {@link #itemNames()}, with ids i * 2 + 1.
+     */
+    static String mappingJson()
+    {
+        List<String> names = itemNames();
+        StringBuilder sb = new StringBuilder(names.size() * 200);
+        sb.append('[');
+        for (int i = 0; i < names.size(); i++)
+        {
+            if (i > 0)
+            {
+                sb.append(',');
+            }
+            sb.append("{\"examine\":\"A fine piece of equipment.\",\"id\":").append(i * 2 + 1)
+                .append(",\"members\":").append(i % 2 == 0)
+                .append(",\"lowalch\":").append(i * 7)
+                .append(",\"limit\":").append(70)
+                .append(",\"value\":").append(i * 11)
+                .append(",\"highalch\":").append(i * 9)
+                .append(",\"icon\":\"Item ").append(i).append(".png\"")
+                .append(",\"name\":\"").append(names.get(i)).append("\"}");
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * The {@code /latest} document for {@link #mappingJson()}.
+     */
+    static String latestJson()
+    {
+        int count = itemNames().size();
+        StringBuilder sb = new StringBuilder(count * 80);
+        sb.append("{\"data\":{");
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0)
+            {
+                sb.append(',');
+            }
+            sb.append('"').append(i * 2 + 1).append("\":{\"high\":").append(1000 + i)
+                .append(",\"highTime\":1700000000,\"low\":").append(990 + i)
+                .append(",\"lowTime\":1700000100}");
+        }
+        return sb.append("}}").toString();
+    }
+
+    /**
+     * A {@code prop=extracts} response for one long article.
+     */
+    static String pageJson(int extractLength)
+    {
+        return "{\"batchcomplete\":\"\",\"query\":{\"pages\":{\"82341\":{\"pageid\":82341,\"ns\":0,"
+            + "\"title\":\"Vorkath\",\"extract\":\"" + wikiText(extractLength, 7).replace("\n", "\\n") + "\"}}}}";
+    }
+
+    /**
+     * A {@code list=search} response with the given number of highlighted hits.
+     */
+    static String searchJson(int hits)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"batchcomplete\":\"\",\"query\":{\"searchinfo\":{\"totalhits\":").append(hits).append("},\"search\":[");
+        for (int i = 0; i < hits; i++)
+        {
+            if (i > 0)
+            {
+                sb.append(',');
+            }
+            sb.append("{\"ns\":0,\"title\":\"Vorkath ").append(i).append("\",\"pageid\":").append(80000 + i)
+                .append(",\"size\":").append(20000 + i).append(",\"wordcount\":").append(3000 + i)
+                .append(",\"snippet\":\"<span class=\\\"searchmatch\\\">Vorkath</span> ")
+                .append(wikiText(160, i).replace("\n", " ")).append("&amp;\"")
+                .append(",\"titlesnippet\":\"<span class=\\\"searchmatch\\\">Vorkath</span>\"")
+                .append(",\"timestamp\":\"2025-01-01T00:00:00Z\"}");
+        }
+        return sb.append("]}}").toString();
+    }
+
+    static List<PluginIndex.Entry> plugins(int count)
+    {
+        Random random = new Random(42);
+        List<PluginIndex.Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            String name = capitalize(WORDS[i % WORDS.length]) + " " + capitalize(WORDS[(i / WORDS.length + i * 7) % WORDS.length])
+                + (i >= WORDS.length * 2 ? " " + i : "");
+            String[] tags = {WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)]};
+            entries.add(new PluginIndex.Entry(null, name, wikiText(80, i), tags));
+        }
+        return entries;
+    }
+
+    /**
+     * {@code group.key} names for a profile with the given number of groups.
+     */
+    static List<String> configKeys(int groups, int keysPerGroup)
+    {
+        List<String> keys = new ArrayList<>(groups * keysPerGroup);
+        for (int g = 0; g < groups; g++)
+        {
+            String group = WORDS[g % WORDS.length] + g;
+            for (int k = 0; k < keysPerGroup; k++)
+            {
+                keys.add(group + "." + WORDS[k % WORDS.length] + "Color" + k);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * A formatted answer like the ones the panel streams: headings, a drop table, lists, code.
+     */
+    static String markdownAnswer(int sections)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int s = 0; s < sections; s++)
+        {
+            sb.append("## Section ").append(s).append("\n\n");
+            sb.append("Vorkath is a **boss** found on *Ungael*; bring `antifire` potions.\n\n");
+            sb.append("| Item | Quantity | Rarity |\n|---|---|---|\n");
+            for (int r = 0; r < 6; r++)
+            {
+                sb.append("| Superior dragon bones | ").append(r + 2).append(" | Always |\n");
+            }
+            sb.append("\n- Step one: travel to **Rellekka**\n- Step two: talk to Torfinn\n  - then sail\n\n");
+            sb.append("```\nspecial attack: 25%\n```\n\n");
+        }
+        return sb.toString();
+    }
+
+    private static String capitalize(String word)
+    {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.runeliteagent;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The panel's streaming path for one whole answer: markdown parsing of each chunk, per-frame
+ * delta merging, applying to the message document and re-measuring the transcript. Runs the
+ * Swing parts headless on the benchmark thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ChunkAppendBenchmark
+{
+    private static final Font FONT = new Font("SansSerif", Font.PLAIN, 12);
+    private static final int CHUNK_CHARS = 8;
+
+    /**
+     * Chunks arriving between two flushes of the frame coalescer.
+     */
+    @Param({"1", "16"})
+    public int chunksPerFrame;
+
+    private List<String> chunks;
+
+    @Setup
+    public void setUp()
+    {
+        String answer = BenchmarkData.markdownAnswer(8);
+        chunks = new ArrayList<>();
+        for (int i = 0; i < answer.length(); i += CHUNK_CHARS)
+        {
+            chunks.add(answer.substring(i, Math.min(answer.length(), i + CHUNK_CHARS)));
+        }
+    }
+
+    @Benchmark
+    public int parseOnly()
+    {
+        MarkdownRenderer renderer = renderer();
+        int runs = 0;
+        for (String chunk : chunks)
+        {
+            runs += renderer.feed(chunk).getCommitted().size();
+        }
+        return runs;
+    }
+
+    @Benchmark
+    public int streamAnswer()
+    {
+        MarkdownRenderer renderer = renderer();
+        ChatTranscript transcript = new ChatTranscript(Color.DARK_GRAY);
+        transcript.setSize(240, 600);
+        ChatMessage message = ChatMessage.styled("Claude", Color.BLACK, Color.GREEN, Color.WHITE, FONT);
+        transcript.addMessage(message);
+
+        List<MarkdownRenderer.Delta> frame = new ArrayList<>(chunksPerFrame);
+        int height = 0;
+        for (String chunk : chunks)
+        {
+            frame.add(renderer.feed(chunk));
+            if (frame.size() == chunksPerFrame)
+            {
+                height = flush(transcript, message, frame);
+            }
+        }
+        if (!frame.isEmpty())
+        {
+            height = flush(transcript, message, frame);
+        }
+        return height;
+    }
+
+    private static int flush(ChatTranscript transcript, ChatMessage message, List<MarkdownRenderer.Delta> frame)
+    {
+        message.apply(MarkdownRenderer.Delta.merge(frame));
+        transcript.messageChanged(message);
+        frame.clear();
+        return transcript.getPreferredSize().height;
+    }
+
+    private static MarkdownRenderer renderer()
+    {
+        return new MarkdownRenderer(FONT, Color.WHITE, Color.GRAY, Color.BLACK);
+    }
+}
@@ -0,0 +1,96 @@
+package com.runeliteagent;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-iteration request cost: building the tool schemas and serializing a Messages API request
+ * as the history grows, both from scratch and with the segment cache warm from the previous
+ * iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestSerializationBenchmark
+{
+    private static final Gson GSON = new Gson();
+
+    @Param({"10", "50", "200"})
+    public int historySize;
+
+    private JsonObject header;
+    private JsonArray system;
+    private JsonArray tools;
+    private JsonArray history;
+    private MessagesRequestBody.Segments warmSegments;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        header = new JsonObject();
+        header.addProperty("model", "claude-sonnet-4-20250514");
+        header.addProperty("max_tokens", 4096);
+        system = new JsonArray();
+        JsonObject prompt = new JsonObject();
+        prompt.addProperty("type", "text");
+        prompt.addProperty("text", BenchmarkData.wikiText(3000, 1));
+        system.add(prompt);
+        tools = AgentOrchestrator.buildToolDefinitions();
+        history = BenchmarkData.history(historySize);
+
+        warmSegments = new MessagesRequestBody.Segments(GSON);
+        write(warmSegments.build(header, system, tools, history, null));
+    }
+
+    @Benchmark
+    public JsonArray buildToolDefinitions()
+    {
+        return AgentOrchestrator.buildToolDefinitions();
+    }
+
+    @Benchmark
+    public long serializeCold() throws IOException
+    {
+        MessagesRequestBody.Segments segments = new MessagesRequestBody.Segments(GSON);
+        return write(segments.build(header, system, tools, history, null));
+    }
+
+    /**
+     * The next agent iteration: same history plus one new message carrying the breakpoint.
+     */
+    @Benchmark
+    public long serializeNextIteration() throws IOException
+    {
+        JsonArray messages = new JsonArray(history.size() + 1);
+        messages.addAll(history);
+        JsonObject newest = BenchmarkData.message(next++);
+        messages.add(newest);
+        return write(warmSegments.build(header, system, tools, messages, newest.deepCopy()));
+    }
+
+    private static long write(MessagesRequestBody body) throws IOException
+    {
+        Buffer sink = new Buffer();
+        body.writeTo(sink);
+        return sink.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.runeliteagent;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The lookups behind RuneLiteController's plugin and config tools, against synthetic plugin and
+ * config sets. The controller itself needs a live ConfigManager and PluginManager, so this
+ * measures the indexes it delegates to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuneLiteIndexBenchmark
+{
+    private static final int KEYS_PER_GROUP = 40;
+
+    @Param({"150", "600"})
+    public int pluginCount;
+
+    private List<PluginIndex.Entry> entries;
+    private PluginIndex pluginIndex;
+    private List<String> configKeys;
+    private ConfigKeyIndex configIndex;
+    private String configGroup;
+
+    @Setup
+    public void setUp()
+    {
+        entries = BenchmarkData.plugins(pluginCount);
+        pluginIndex = new PluginIndex(entries);
+        configKeys = BenchmarkData.configKeys(pluginCount, KEYS_PER_GROUP);
+        configIndex = new ConfigKeyIndex();
+        configIndex.rebuild(configKeys);
+        configGroup = configKeys.get(configKeys.size() / 2).substring(0, configKeys.get(configKeys.size() / 2).indexOf('.'));
+    }
+
+    @Benchmark
+    public PluginIndex.Resolution resolvePluginExact()
+    {
+        return pluginIndex.resolve(entries.get(entries.size() / 2).getName());
+    }
+
+    @Benchmark
+    public PluginIndex.Resolution resolvePluginFuzzy()
+    {
+        return pluginIndex.resolve("groud itms");
+    }
+
+    @Benchmark
+    public List<String> suggestPluginNames()
+    {
+        return pluginIndex.suggestions("notfound plugin", 3);
+    }
+
+    @Benchmark
+    public List<String> listConfigGroupsPage()
+    {
+        return configIndex.groups("", 0, 100);
+    }
+
+    @Benchmark
+    public List<String> listConfigKeysByPrefix()
+    {
+        return configIndex.keys(configGroup, "xp", 0, 100);
+    }
+
+    @Benchmark
+    public ConfigKeyIndex rebuildConfigIndex()
+    {
+        ConfigKeyIndex index = new ConfigKeyIndex();
+        index.rebuild(configKeys);
+        return index;
+    }
+}
@@ -0,0 +1,99 @@
+package com.runeliteagent;
+
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * OsrsWikiClient data paths: parsing the item mapping, latest prices, search results and page
+ * extracts, resolving item names against the index, and cleaning search snippets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WikiDataBenchmark
+{
+    private static final String SNIPPET = "The <span class=\"searchmatch\">Dragon</span> "
+        + "<span class=\"searchmatch\">scimitar</span> is a scimitar that requires level 60 Attack to wield&nbsp;and "
+        + "<span class=\"searchmatch\">completion</span> of Monkey Madness I. It has a special attack, "
+        + "&quot;Sever&quot;, which deals increased accuracy &amp; prevents protection prayers.";
+
+    private String mappingJson;
+    private String latestJson;
+    private String searchJson;
+    private String pageJson;
+    private ItemIndex index;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        mappingJson = BenchmarkData.mappingJson();
+        latestJson = BenchmarkData.latestJson();
+        searchJson = BenchmarkData.searchJson(10);
+        pageJson = BenchmarkData.pageJson(60_000);
+        index = ItemIndex.parse(new JsonReader(new StringReader(mappingJson)));
+    }
+
+    @Benchmark
+    public ItemIndex parseMapping() throws IOException
+    {
+        return ItemIndex.parse(new JsonReader(new StringReader(mappingJson)));
+    }
+
+    @Benchmark
+    public PriceSnapshot parseLatest() throws IOException
+    {
+        return PriceSnapshot.parse(new JsonReader(new StringReader(latestJson)), 0);
+    }
+
+    @Benchmark
+    public List<WikiSearchResult> parseSearch() throws IOException
+    {
+        return WikiSearchResult.parse(new JsonReader(new StringReader(searchJson)));
+    }
+
+    @Benchmark
+    public List<WikiPage> parsePage() throws IOException
+    {
+        return WikiPage.parse(new JsonReader(new StringReader(pageJson)));
+    }
+
+    @Benchmark
+    public int findExact()
+    {
+        return index.find("Rune scimitar");
+    }
+
+    @Benchmark
+    public int findPartial()
+    {
+        return index.find("dragon plateb");
+    }
+
+    @Benchmark
+    public int findMisspelt()
+    {
+        return index.find("adamnt kiteshild");
+    }
+
+    @Benchmark
+    public String stripSnippetHtml()
+    {
+        return OsrsWikiClient.stripSnippetHtml(SNIPPET);
+    }
+}
@@ -5,8 +5,19 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 
@@ -14,12 +25,27 @@ import lombok.extern.slf4j.Slf4j;
 public class AgentOrchestrator
 {
     private static final int MAX_TOOL_ITERATIONS = 10;
+    private static final int TOOL_THREADS = 4;
+    private static final int DEFAULT_CONFIG_PAGE_SIZE = 100;
+
+    /**
+     * Tools that mutate client state. These never overlap with other tool calls: everything
+     * requested before them finishes first, and nothing after them starts until they return.
+     */
+    private static final Set<String> SERIAL_TOOLS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "enable_plugin",
+        "disable_plugin",
+        "set_config"
+    )));
 
     private final ClaudeApiClient apiClient;
     private final RuneLiteController controller;
     private final OsrsWikiClient wikiClient;
     private final ClaudeAgentConfig config;
+    private final ContextManager contextManager;
+    private final SessionMetrics metrics = new SessionMetrics();
     private final ExecutorService executor;
+    private final ExecutorService toolExecutor;
     private final JsonArray conversationHistory;
     private final JsonArray toolDefinitions;
 
@@ -30,11 +56,18 @@ public class AgentOrchestrator
         this.controller = controller;
         this.wikiClient = wikiClient;
         this.config = config;
+        this.contextManager = new ContextManager(config);
         this.executor = Executors.newSingleThreadExecutor(r -> {
             Thread t = new Thread(r, "claude-agent-worker");
             t.setDaemon(true);
             return t;
         });
+        AtomicInteger toolThreadCount = new AtomicInteger();
+        this.toolExecutor = Executors.newFixedThreadPool(TOOL_THREADS, r -> {
+            Thread t = new Thread(r, "claude-agent-tool-" + toolThreadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
         this.conversationHistory = new JsonArray();
         this.toolDefinitions = buildToolDefinitions();
     }
@@ -43,10 +76,12 @@ public class AgentOrchestrator
      * Send a user message and process the response asynchronously.
      * The onChunk callback receives text segments as they become available.
      * The onComplete callback is called when the full response is ready.
+     * Neither callback nor onError is called once the returned turn has been cancelled.
      */
-    public void sendMessage(String userMessage, Consumer<String> onChunk, Consumer<String> onComplete, Consumer<String> onError)
+    public AgentTurn sendMessage(String userMessage, Consumer<String> onChunk, Consumer<String> onComplete, Consumer<String> onError)
     {
-        executor.submit(() -> {
+        AgentTurn turn = new AgentTurn();
+        turn.setTask(executor.submit(() -> {
             try
             {
                 // Add user message to history
@@ -58,26 +93,68 @@ public class AgentOrchestrator
                 textBlock.addProperty("text", userMessage);
                 content.add(textBlock);
                 userMsg.add("content", content);
-                conversationHistory.add(userMsg);
+                ContextManager.addTurnStart(conversationHistory, userMsg);
 
                 // Run the agent loop
                 StringBuilder fullResponse = new StringBuilder();
-                runAgentLoop(fullResponse, onChunk, onError);
+                runAgentLoop(turn, fullResponse, onChunk, onError);
+                if (!turn.finish())
+                {
+                    rollBackTurn();
+                    return;
+                }
+                TurnTrace trace = turn.getTrace();
+                trace.finish();
+                metrics.record(trace);
+                log.info("Turn trace: {}", trace);
+                log.info("Session metrics: {}", metrics.summaryLine());
                 onComplete.accept(fullResponse.toString());
             }
             catch (Exception e)
             {
+                if (!turn.finish())
+                {
+                    log.debug("Turn cancelled: {}", e.getMessage());
+                    rollBackTurn();
+                    return;
+                }
                 log.error("Agent error", e);
                 onError.accept("Error: " + e.getMessage());
             }
-        });
+        }));
+        return turn;
+    }
+
+    /**
+     * Remove the current turn from the history, so a cancelled turn never leaves a tool_use
+     * without its tool_result or a question without an answer. A summary of earlier turns
+     * carried on the turn's question is kept.
+     */
+    private void rollBackTurn()
+    {
+        ContextManager.removeLastTurn(conversationHistory);
     }
 
-    private void runAgentLoop(StringBuilder fullResponse, Consumer<String> onChunk, Consumer<String> onError) throws IOException
+    private void runAgentLoop(AgentTurn turn, StringBuilder fullResponse, Consumer<String> onChunk, Consumer<String> onError) throws IOException
     {
-        for (int iteration = 0; iteration < MAX_TOOL_ITERATIONS; iteration++)
+        TurnTrace trace = turn.getTrace();
+        Consumer<String> tracedChunk = chunk -> {
+            trace.markFirstToken();
+            onChunk.accept(chunk);
+        };
+        for (int iteration = 0; iteration < MAX_TOOL_ITERATIONS && !turn.isCancelled(); iteration++)
         {
-            JsonObject response = apiClient.sendMessage(conversationHistory, toolDefinitions);
+            // When streaming, text reaches onChunk delta by delta instead of once per block
+            boolean stream = config.streamResponses();
+            contextManager.compact(conversationHistory);
+            long callStart = System.nanoTime();
+            JsonObject response = apiClient.sendMessage(conversationHistory, toolDefinitions,
+                stream ? tracedChunk : null, turn);
+            if (turn.isCancelled())
+            {
+                return;
+            }
+            trace.recordApiCall(System.nanoTime() - callStart, response.getAsJsonObject("usage"));
 
             String stopReason = response.has("stop_reason") ? response.get("stop_reason").getAsString() : "";
             JsonArray contentBlocks = response.getAsJsonArray("content");
@@ -88,9 +165,10 @@ public class AgentOrchestrator
             assistantMsg.add("content", contentBlocks);
             conversationHistory.add(assistantMsg);
 
-            // Process content blocks
-            boolean hasToolUse = false;
-            JsonArray toolResults = new JsonArray();
+            // Process content blocks. Tool calls are dispatched as they are encountered and
+            // collected afterwards, so independent calls overlap their network round trips.
+            List<JsonObject> toolUses = new ArrayList<>();
+            List<Future<String>> pendingResults = new ArrayList<>();
 
             for (JsonElement block : contentBlocks)
             {
@@ -101,30 +179,46 @@ public class AgentOrchestrator
                 {
                     String text = blockObj.get("text").getAsString();
                     fullResponse.append(text);
-                    onChunk.accept(text);
+                    if (!stream)
+                    {
+                        tracedChunk.accept(text);
+                    }
                 }
                 else if ("tool_use".equals(type))
                 {
-                    hasToolUse = true;
-                    String toolId = blockObj.get("id").getAsString();
                     String toolName = blockObj.get("name").getAsString();
                     JsonObject input = blockObj.getAsJsonObject("input");
 
-                    onChunk.accept("\n🔧 Using tool: " + toolName + "...\n");
-
-                    String result = executeTool(toolName, input);
-                    log.info("Tool '{}' result: {}", toolName, result);
+                    tracedChunk.accept("\n🔧 Using tool: " + toolName + "...\n");
+
+                    toolUses.add(blockObj);
+                    if (SERIAL_TOOLS.contains(toolName))
+                    {
+                        awaitAll(pendingResults);
+                        pendingResults.add(CompletableFuture.completedFuture(runTool(trace, toolName, input)));
+                    }
+                    else
+                    {
+                        Future<String> result = toolExecutor.submit(() -> runTool(trace, toolName, input));
+                        turn.trackTool(result);
+                        pendingResults.add(result);
+                    }
+                }
+            }
 
+            if (!toolUses.isEmpty())
+            {
+                // Results go back in the same order as the tool_use blocks that requested them
+                JsonArray toolResults = new JsonArray();
+                for (int i = 0; i < toolUses.size(); i++)
+                {
                     JsonObject toolResult = new JsonObject();
                     toolResult.addProperty("type", "tool_result");
-                    toolResult.addProperty("tool_use_id", toolId);
-                    toolResult.addProperty("content", result);
+                    toolResult.addProperty("tool_use_id", toolUses.get(i).get("id").getAsString());
+                    toolResult.addProperty("content", awaitResult(toolUses.get(i), pendingResults.get(i)));
                     toolResults.add(toolResult);
                 }
-            }
 
-            if (hasToolUse)
-            {
                 // Add tool results to conversation and continue loop
                 JsonObject toolResultMsg = new JsonObject();
                 toolResultMsg.addProperty("role", "user");
@@ -140,6 +234,54 @@ public class AgentOrchestrator
         }
     }
 
+    private String runTool(TurnTrace trace, String toolName, JsonObject input)
+    {
+        long start = System.nanoTime();
+        String result = executeTool(toolName, input);
+        trace.recordTool(toolName, System.nanoTime() - start);
+        log.info("Tool '{}' result: {}", toolName, result);
+        return result;
+    }
+
+    private void awaitAll(List<Future<String>> pending) throws InterruptedIOException
+    {
+        for (Future<String> future : pending)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (ExecutionException e)
+            {
+                // Reported when the result is collected
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for tool calls");
+            }
+        }
+    }
+
+    private String awaitResult(JsonObject toolUse, Future<String> future) throws InterruptedIOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (ExecutionException e)
+        {
+            String toolName = toolUse.get("name").getAsString();
+            log.error("Tool execution error: {} - {}", toolName, e.getCause().getMessage(), e.getCause());
+            return "Tool error: " + e.getCause().getMessage();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for tool calls");
+        }
+    }
+
     private String executeTool(String toolName, JsonObject input)
     {
         try
@@ -169,10 +311,19 @@ public class AgentOrchestrator
                     );
 
                 case "list_config_groups":
-                    return controller.listConfigGroups();
+                    return controller.listConfigGroups(
+                        optString(input, "prefix", ""),
+                        optInt(input, "offset", 0),
+                        optInt(input, "limit", DEFAULT_CONFIG_PAGE_SIZE)
+                    );
 
                 case "list_config_keys":
-                    return controller.listConfigKeys(input.get("group").getAsString());
+                    return controller.listConfigKeys(
+                        input.get("group").getAsString(),
+                        optString(input, "prefix", ""),
+                        optInt(input, "offset", 0),
+                        optInt(input, "limit", DEFAULT_CONFIG_PAGE_SIZE)
+                    );
 
                 case "get_player_stats":
                     return controller.getPlayerStats();
@@ -184,9 +335,35 @@ public class AgentOrchestrator
                 case "get_wiki_page":
                     return wikiClient.getPage(input.get("title").getAsString());
 
+                case "get_wiki_pages":
+                    List<String> titles = new ArrayList<>();
+                    for (JsonElement title : input.getAsJsonArray("titles"))
+                    {
+                        titles.add(title.getAsString());
+                    }
+                    return wikiClient.getPages(titles);
+
+                case "get_wiki_section":
+                    return wikiClient.getSections(
+                        input.get("title").getAsString(),
+                        input.get("query").getAsString(),
+                        optInt(input, "max_sections", 2)
+                    );
+
                 case "get_item_price":
                     return wikiClient.getItemPrice(input.get("item_name").getAsString());
 
+                case "get_item_prices":
+                    List<String> itemNames = new ArrayList<>();
+                    for (JsonElement itemName : input.getAsJsonArray("item_names"))
+                    {
+                        itemNames.add(itemName.getAsString());
+                    }
+                    return wikiClient.getItemPrices(itemNames);
+
+                case "get_agent_metrics":
+                    return metrics.render().trim() + "\nWiki prefetch: " + wikiClient.getPrefetchStats() + "\n";
+
                 default:
                     return "Unknown tool: " + toolName;
             }
@@ -198,7 +375,20 @@ public class AgentOrchestrator
         }
     }
 
-    private JsonArray buildToolDefinitions()
+    private static String optString(JsonObject input, String name, String defaultValue)
+    {
+        return input.has(name) && !input.get(name).isJsonNull() ? input.get(name).getAsString() : defaultValue;
+    }
+
+    private static int optInt(JsonObject input, String name, int defaultValue)
+    {
+        return input.has(name) && !input.get(name).isJsonNull() ? input.get(name).getAsInt() : defaultValue;
+    }
+
+    /**
+     * Tool schemas advertised to Claude. Static and package-private so benchmarks can build them.
+     */
+    static JsonArray buildToolDefinitions()
     {
         JsonArray tools = new JsonArray();
 
@@ -208,28 +398,35 @@ public class AgentOrchestrator
             new JsonObject()));
 
         JsonObject enableInput = new JsonObject();
-        addProperty(enableInput, "plugin_name", "string", "Name of the plugin to enable (case-insensitive, partial match supported)");
+        addProperty(enableInput, "plugin_name", "string", "Name of the plugin to enable (case-insensitive, fuzzy match supported; ambiguous names return candidates)");
         addRequired(enableInput, "plugin_name");
         tools.add(buildTool("enable_plugin",
             "Enable a RuneLite plugin by name. The plugin will be started immediately.",
             enableInput));
 
         JsonObject disableInput = new JsonObject();
-        addProperty(disableInput, "plugin_name", "string", "Name of the plugin to disable (case-insensitive, partial match supported)");
+        addProperty(disableInput, "plugin_name", "string", "Name of the plugin to disable (case-insensitive, fuzzy match supported; ambiguous names return candidates)");
         addRequired(disableInput, "plugin_name");
         tools.add(buildTool("disable_plugin",
             "Disable a RuneLite plugin by name. The plugin will be stopped immediately.",
             disableInput));
 
+        JsonObject listGroupsInput = new JsonObject();
+        addProperty(listGroupsInput, "prefix", "string", "Only list groups whose name starts with this prefix");
+        addProperty(listGroupsInput, "offset", "integer", "Number of groups to skip, for paging (default 0)");
+        addProperty(listGroupsInput, "limit", "integer", "Maximum number of groups to return (default " + DEFAULT_CONFIG_PAGE_SIZE + ")");
         tools.add(buildTool("list_config_groups",
-            "List all available RuneLite configuration groups. Each group corresponds to a plugin or system setting.",
-            new JsonObject()));
+            "List available RuneLite configuration groups, alphabetically. Each group corresponds to a plugin or system setting.",
+            listGroupsInput));
 
         JsonObject listKeysInput = new JsonObject();
         addProperty(listKeysInput, "group", "string", "Configuration group name to list keys for");
+        addProperty(listKeysInput, "prefix", "string", "Only list keys whose name starts with this prefix");
+        addProperty(listKeysInput, "offset", "integer", "Number of keys to skip, for paging (default 0)");
+        addProperty(listKeysInput, "limit", "integer", "Maximum number of keys to return (default " + DEFAULT_CONFIG_PAGE_SIZE + ")");
         addRequired(listKeysInput, "group");
         tools.add(buildTool("list_config_keys",
-            "List all configuration keys and their current values for a specific config group.",
+            "List configuration keys and their current values for a specific config group, alphabetically.",
             listKeysInput));
 
         JsonObject getConfigInput = new JsonObject();
@@ -270,6 +467,27 @@ public class AgentOrchestrator
             "Get the full text content of a specific OSRS Wiki page by its exact title.",
             pageInput));
 
+        JsonObject pagesInput = new JsonObject();
+        addProperty(pagesInput, "titles", "array", "Exact titles of the wiki pages to retrieve (up to "
+            + OsrsWikiClient.MAX_BATCH_PAGES + ")");
+        pagesInput.getAsJsonObject("properties").getAsJsonObject("titles")
+            .add("items", buildType("string"));
+        addRequired(pagesInput, "titles");
+        tools.add(buildTool("get_wiki_pages",
+            "Get the text content of several OSRS Wiki pages in one call, e.g. each piece of a gear set. "
+                + "Prefer this over repeated get_wiki_page calls. Long pages are shortened to share the output budget.",
+            pagesInput));
+
+        JsonObject sectionInput = new JsonObject();
+        addProperty(sectionInput, "title", "string", "Exact title of the wiki page");
+        addProperty(sectionInput, "query", "string", "What you need from the page, e.g. 'drops' or 'phase 2 strategy'");
+        addProperty(sectionInput, "max_sections", "integer", "Maximum number of sections to return (default 2)");
+        addRequired(sectionInput, "title", "query");
+        tools.add(buildTool("get_wiki_section",
+            "Get only the sections of an OSRS Wiki page relevant to a question, plus the names of its other sections. "
+                + "Prefer this over get_wiki_page for long articles such as boss strategies and quest guides.",
+            sectionInput));
+
         JsonObject priceInput = new JsonObject();
         addProperty(priceInput, "item_name", "string", "Name of the item to look up");
         addRequired(priceInput, "item_name");
@@ -277,10 +495,24 @@ public class AgentOrchestrator
             "Look up Grand Exchange price information for an OSRS item.",
             priceInput));
 
+        JsonObject pricesInput = new JsonObject();
+        addProperty(pricesInput, "item_names", "array", "Names of the items to look up");
+        pricesInput.getAsJsonObject("properties").getAsJsonObject("item_names")
+            .add("items", buildType("string"));
+        addRequired(pricesInput, "item_names");
+        tools.add(buildTool("get_item_prices",
+            "Look up Grand Exchange prices for several OSRS items in one call. Prefer this over repeated get_item_price calls.",
+            pricesInput));
+
+        // --- Diagnostics ---
+        tools.add(buildTool("get_agent_metrics",
+            "Get this session's assistant performance: turn latency and time to first token (p50/p95), API call latency, token usage, tool timings and wiki prefetch hit rate.",
+            new JsonObject()));
+
         return tools;
     }
 
-    private JsonObject buildTool(String name, String description, JsonObject properties)
+    private static JsonObject buildTool(String name, String description, JsonObject properties)
     {
         JsonObject tool = new JsonObject();
         tool.addProperty("name", name);
@@ -307,7 +539,7 @@ public class AgentOrchestrator
         return tool;
     }
 
-    private void addProperty(JsonObject schema, String name, String type, String description)
+    private static void addProperty(JsonObject schema, String name, String type, String description)
     {
         if (!schema.has("properties"))
         {
@@ -319,7 +551,14 @@ public class AgentOrchestrator
         schema.getAsJsonObject("properties").add(name, prop);
     }
 
-    private void addRequired(JsonObject schema, String... names)
+    private static JsonObject buildType(String type)
+    {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", type);
+        return schema;
+    }
+
+    private static void addRequired(JsonObject schema, String... names)
     {
         JsonArray required = new JsonArray();
         for (String name : names)
@@ -330,19 +569,22 @@ public class AgentOrchestrator
     }
 
     /**
-     * Clear conversation history to start fresh.
+     * Clear conversation history to start fresh. Runs on the agent worker, after any turn that is
+     * still winding down.
      */
     public void clearHistory()
     {
-        while (conversationHistory.size() > 0)
-        {
-            conversationHistory.remove(0);
-        }
+        executor.submit(() -> {
+            while (conversationHistory.size() > 0)
+            {
+                conversationHistory.remove(0);
+            }
+        });
     }
 
     public void shutdown()
     {
         executor.shutdownNow();
-        apiClient.shutdown();
+        toolExecutor.shutdownNow();
     }
 }
@@ -0,0 +1,123 @@
+package com.runeliteagent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import okhttp3.Call;
+
+/**
+ * Handle for one user turn submitted to {@link AgentOrchestrator#sendMessage}.
+ * Cancelling aborts the in-flight API call, interrupts pending tool work and stops the agent
+ * loop; the orchestrator then rolls the turn back out of the conversation history.
+ */
+public class AgentTurn
+{
+    private volatile boolean cancelled;
+    private boolean finished;
+    private volatile Future<?> task;
+    private Call activeCall;
+    private final List<Future<?>> toolTasks = new ArrayList<>();
+    private final TurnTrace trace = new TurnTrace();
+
+    /**
+     * Timings and token usage recorded while the turn runs.
+     */
+    public TurnTrace getTrace()
+    {
+        return trace;
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Cancel the turn unless it has already finished.
+     *
+     * @return true if the turn was cancelled and will be rolled back, false if it had already
+     * finished and stays in the conversation
+     */
+    public boolean cancel()
+    {
+        Call call;
+        List<Future<?>> tools;
+        synchronized (this)
+        {
+            if (finished)
+            {
+                return false;
+            }
+            cancelled = true;
+            call = activeCall;
+            tools = new ArrayList<>(toolTasks);
+        }
+
+        if (call != null)
+        {
+            call.cancel();
+        }
+        for (Future<?> tool : tools)
+        {
+            tool.cancel(true);
+        }
+        Future<?> t = task;
+        if (t != null)
+        {
+            t.cancel(true);
+        }
+        return true;
+    }
+
+    /**
+     * Mark the turn as finished, after which {@link #cancel} has no effect.
+     *
+     * @return false if the turn was cancelled first and must be rolled back
+     */
+    synchronized boolean finish()
+    {
+        if (cancelled)
+        {
+            return false;
+        }
+        finished = true;
+        return true;
+    }
+
+    void setTask(Future<?> task)
+    {
+        this.task = task;
+        if (cancelled)
+        {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Register the HTTP call currently running for this turn, cancelling it straight away if the
+     * turn was cancelled before the call was created.
+     */
+    void setActiveCall(Call call)
+    {
+        synchronized (this)
+        {
+            activeCall = call;
+        }
+        if (cancelled && call != null)
+        {
+            call.cancel();
+        }
+    }
+
+    void trackTool(Future<?> toolTask)
+    {
+        synchronized (this)
+        {
+            toolTasks.add(toolTask);
+        }
+        if (cancelled)
+        {
+            toolTask.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.runeliteagent;
+
+import java.awt.Color;
+import java.awt.Font;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.StyledDocument;
+
+/**
+ * One entry of the chat transcript. Messages are plain models painted by {@link ChatTranscript};
+ * they hold no Swing components, only their text, colours and the height last measured for them.
+ * Assistant messages also carry a styled document built from {@link MarkdownRenderer} deltas.
+ */
+public class ChatMessage
+{
+    private final String sender;
+    private final Color background;
+    private final Color labelColor;
+    private final Color textColor;
+    private final Font font;
+    private final StringBuilder text;
+    private final StyledDocument document;
+    // Document length excluding the provisional rendering of the line in progress
+    private int committedLength;
+
+    // Height measured at measuredWidth; -1 when the text changed since
+    int measuredWidth = -1;
+    int height;
+
+    public ChatMessage(String sender, String text, Color background, Color labelColor, Color textColor, Font font)
+    {
+        this(sender, text, background, labelColor, textColor, font, null);
+    }
+
+    private ChatMessage(String sender, String text, Color background, Color labelColor, Color textColor, Font font,
+        StyledDocument document)
+    {
+        this.sender = sender;
+        this.text = new StringBuilder(text);
+        this.background = background;
+        this.labelColor = labelColor;
+        this.textColor = textColor;
+        this.font = font;
+        this.document = document;
+    }
+
+    /**
+     * An initially empty message whose content arrives as markdown deltas. Must be created on
+     * the EDT.
+     */
+    public static ChatMessage styled(String sender, Color background, Color labelColor, Color textColor, Font font)
+    {
+        return new ChatMessage(sender, "", background, labelColor, textColor, font, new DefaultStyledDocument());
+    }
+
+    /**
+     * @return the sender label, or null for compact status lines such as "Done"
+     */
+    public String getSender()
+    {
+        return sender;
+    }
+
+    public Color getBackground()
+    {
+        return background;
+    }
+
+    public Color getLabelColor()
+    {
+        return labelColor;
+    }
+
+    public Color getTextColor()
+    {
+        return textColor;
+    }
+
+    public Font getFont()
+    {
+        return font;
+    }
+
+    /**
+     * @return the styled content, or null for plain-text messages
+     */
+    public StyledDocument getDocument()
+    {
+        return document;
+    }
+
+    /**
+     * @return the message source; for styled messages, the markdown as received
+     */
+    public String getText()
+    {
+        return text.toString();
+    }
+
+    public int length()
+    {
+        return text.length();
+    }
+
+    /**
+     * Apply a markdown delta to the styled document: drop the previous provisional tail, append
+     * the newly committed runs, then the new provisional runs. Must be called on the EDT.
+     */
+    void apply(MarkdownRenderer.Delta delta)
+    {
+        text.append(delta.getRaw());
+        try
+        {
+            document.remove(committedLength, document.getLength() - committedLength);
+            for (MarkdownRenderer.Run run : delta.getCommitted())
+            {
+                document.insertString(document.getLength(), run.getText(), run.getStyle());
+            }
+            committedLength = document.getLength();
+            for (MarkdownRenderer.Run run : delta.getProvisional())
+            {
+                document.insertString(document.getLength(), run.getText(), run.getStyle());
+            }
+        }
+        catch (BadLocationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        measuredWidth = -1;
+    }
+}
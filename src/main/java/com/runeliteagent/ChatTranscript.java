@@ -0,0 +1,415 @@
+package com.runeliteagent;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.BorderFactory;
+import javax.swing.CellRendererPane;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextArea;
+import javax.swing.JTextPane;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.border.Border;
+import javax.swing.border.EmptyBorder;
+import javax.swing.text.DefaultStyledDocument;
+
+/**
+ * Virtualized chat transcript. Messages are plain {@link ChatMessage} models painted through a
+ * single shared renderer, so the component count stays constant no matter how long the session
+ * runs. Heights are measured once per message and width and kept as prefix sums, which lets
+ * painting binary-search straight to the visible range. The oldest messages are dropped beyond
+ * {@link #MAX_MESSAGES} to keep retained memory bounded.
+ */
+public class ChatTranscript extends JComponent implements Scrollable
+{
+    static final int MAX_MESSAGES = 500;
+    private static final int TRIM_BATCH = 50;
+    private static final int GAP = 3;
+    private static final int SCROLL_UNIT = 16;
+
+    private final List<ChatMessage> messages = new ArrayList<>();
+    private final CellRendererPane rendererPane = new CellRendererPane();
+    private final Renderer renderer = new Renderer();
+
+    // offsets[i] is the y of message i; valid for indexes below layoutValidUpTo
+    private int[] offsets = new int[64];
+    private int layoutValidUpTo = 0;
+    private int layoutWidth = -1;
+
+    public ChatTranscript(Color background)
+    {
+        setBackground(background);
+        setOpaque(true);
+        setBorder(new EmptyBorder(5, 5, 5, 5));
+        add(rendererPane);
+
+        // Text is painted, not hosted in live text components, so copying is per message
+        setToolTipText("Double-click a message to copy it");
+        addMouseListener(new MouseAdapter()
+        {
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                if (e.getClickCount() == 2)
+                {
+                    ChatMessage message = messageAt(e.getY());
+                    if (message != null)
+                    {
+                        Toolkit.getDefaultToolkit().getSystemClipboard()
+                            .setContents(new StringSelection(message.getText()), null);
+                    }
+                }
+            }
+        });
+    }
+
+    public void addMessage(ChatMessage message)
+    {
+        messages.add(message);
+        if (messages.size() > MAX_MESSAGES + TRIM_BATCH)
+        {
+            trim();
+        }
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Note that a message's content changed, re-measuring only that message and the offsets
+     * after it.
+     */
+    public void messageChanged(ChatMessage message)
+    {
+        message.measuredWidth = -1;
+        int index = indexOf(message);
+        if (index >= 0)
+        {
+            layoutValidUpTo = Math.min(layoutValidUpTo, index);
+        }
+        revalidate();
+        repaint();
+    }
+
+    public void clear()
+    {
+        messages.clear();
+        layoutValidUpTo = 0;
+        revalidate();
+        repaint();
+    }
+
+    public void scrollToBottom()
+    {
+        ensureLayout();
+        int bottom = offsets[messages.size()] + getInsets().bottom;
+        scrollRectToVisible(new Rectangle(0, Math.max(0, bottom - 1), 1, 1));
+    }
+
+    private void trim()
+    {
+        ensureLayout();
+        int removedHeight = offsets[TRIM_BATCH] - offsets[0];
+        messages.subList(0, TRIM_BATCH).clear();
+        layoutValidUpTo = 0;
+
+        // Keep whatever the user is reading in place after the top of the list moves up
+        if (getParent() instanceof JViewport)
+        {
+            JViewport viewport = (JViewport) getParent();
+            Point position = viewport.getViewPosition();
+            viewport.setViewPosition(new Point(position.x, Math.max(0, position.y - removedHeight)));
+        }
+    }
+
+    private int indexOf(ChatMessage message)
+    {
+        // Appends almost always target the newest message
+        for (int i = messages.size() - 1; i >= 0; i--)
+        {
+            if (messages.get(i) == message)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int contentWidth()
+    {
+        Insets insets = getInsets();
+        int width = getWidth();
+        if (width <= 0 && getParent() instanceof JViewport)
+        {
+            width = getParent().getWidth();
+        }
+        return Math.max(1, width - insets.left - insets.right);
+    }
+
+    /**
+     * Measure dirty messages and rebuild the prefix sums from the first changed index onward.
+     */
+    private void ensureLayout()
+    {
+        int width = contentWidth();
+        if (width != layoutWidth)
+        {
+            layoutWidth = width;
+            layoutValidUpTo = 0;
+        }
+
+        int count = messages.size();
+        if (offsets.length < count + 1)
+        {
+            int[] grown = new int[Math.max(count + 1, offsets.length * 2)];
+            System.arraycopy(offsets, 0, grown, 0, offsets.length);
+            offsets = grown;
+        }
+        if (layoutValidUpTo == 0)
+        {
+            offsets[0] = getInsets().top;
+        }
+        for (int i = layoutValidUpTo; i < count; i++)
+        {
+            ChatMessage message = messages.get(i);
+            if (message.measuredWidth != width)
+            {
+                message.height = renderer.measure(message, width);
+                message.measuredWidth = width;
+            }
+            offsets[i + 1] = offsets[i] + message.height;
+        }
+        layoutValidUpTo = count;
+    }
+
+    private int firstIndexAt(int y)
+    {
+        int low = 0;
+        int high = messages.size() - 1;
+        while (low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= y)
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private ChatMessage messageAt(int y)
+    {
+        ensureLayout();
+        if (messages.isEmpty() || y < offsets[0] || y >= offsets[messages.size()])
+        {
+            return null;
+        }
+        return messages.get(firstIndexAt(y));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        g.setColor(getBackground());
+        Rectangle clip = g.getClipBounds();
+        if (clip == null)
+        {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        if (messages.isEmpty())
+        {
+            return;
+        }
+        ensureLayout();
+
+        int x = getInsets().left;
+        int bottom = clip.y + clip.height;
+        for (int i = firstIndexAt(clip.y); i < messages.size() && offsets[i] < bottom; i++)
+        {
+            ChatMessage message = messages.get(i);
+            renderer.configure(message);
+            rendererPane.paintComponent(g, renderer, this, x, offsets[i], layoutWidth, message.height, true);
+        }
+        rendererPane.removeAll();
+    }
+
+    @Override
+    public Dimension getPreferredSize()
+    {
+        ensureLayout();
+        Insets insets = getInsets();
+        return new Dimension(layoutWidth + insets.left + insets.right, offsets[messages.size()] + insets.bottom);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize()
+    {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        return SCROLL_UNIT;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height - SCROLL_UNIT : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight()
+    {
+        return getParent() instanceof JViewport && getParent().getHeight() > getPreferredSize().height;
+    }
+
+    /**
+     * The one bubble component every message is measured and painted with. Styled messages get
+     * a text pane bound to their document, kept for the few most recently painted messages so a
+     * streaming message updates its views incrementally instead of rebuilding them per paint.
+     */
+    private static class Renderer extends JPanel
+    {
+        private static final int MAX_STYLED_PANES = 8;
+
+        private static final Border BUBBLE_BORDER = BorderFactory.createCompoundBorder(
+            new EmptyBorder(GAP, 0, GAP, 0),
+            new EmptyBorder(8, 10, 8, 10)
+        );
+        private static final Border STATUS_BORDER = new EmptyBorder(2, 10, 2, 10);
+        private static final Font LABEL_FONT = new Font("SansSerif", Font.BOLD, 11);
+
+        private final JLabel label = new JLabel();
+        private final JTextArea content = new JTextArea();
+        private final Map<ChatMessage, JTextPane> panes = new LinkedHashMap<ChatMessage, JTextPane>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ChatMessage, JTextPane> eldest)
+            {
+                if (size() > MAX_STYLED_PANES)
+                {
+                    // Detach so the message's document does not keep the pane's views alive
+                    eldest.getValue().setDocument(new DefaultStyledDocument());
+                    return true;
+                }
+                return false;
+            }
+        };
+        private JComponent center;
+        private ChatMessage configured;
+        private int configuredLength = -1;
+
+        Renderer()
+        {
+            super(new BorderLayout());
+            label.setFont(LABEL_FONT);
+            label.setBorder(new EmptyBorder(0, 0, 4, 0));
+            content.setEditable(false);
+            content.setLineWrap(true);
+            content.setWrapStyleWord(true);
+            content.setBorder(null);
+            add(label, BorderLayout.NORTH);
+            setCenter(content);
+        }
+
+        private void setCenter(JComponent component)
+        {
+            if (center != component)
+            {
+                if (center != null)
+                {
+                    remove(center);
+                }
+                add(component, BorderLayout.CENTER);
+                center = component;
+            }
+        }
+
+        private JTextPane paneFor(ChatMessage message)
+        {
+            JTextPane pane = panes.get(message);
+            if (pane == null)
+            {
+                pane = new JTextPane();
+                pane.setEditable(false);
+                pane.setBorder(null);
+                pane.setDocument(message.getDocument());
+                panes.put(message, pane);
+            }
+            return pane;
+        }
+
+        void configure(ChatMessage message)
+        {
+            if (message == configured && message.length() == configuredLength)
+            {
+                return;
+            }
+            configured = message;
+            configuredLength = message.length();
+
+            boolean status = message.getSender() == null;
+            setBackground(message.getBackground());
+            setBorder(status ? STATUS_BORDER : BUBBLE_BORDER);
+            label.setVisible(!status);
+            label.setText(status ? "" : message.getSender());
+            label.setForeground(message.getLabelColor());
+            if (message.getDocument() != null)
+            {
+                JTextPane pane = paneFor(message);
+                pane.setBackground(message.getBackground());
+                setCenter(pane);
+                return;
+            }
+            content.setFont(message.getFont());
+            content.setForeground(message.getTextColor());
+            content.setBackground(message.getBackground());
+            content.setText(message.getText());
+            setCenter(content);
+        }
+
+        int measure(ChatMessage message, int width)
+        {
+            configure(message);
+            Insets insets = getInsets();
+            // A wrapping text area reports its preferred height for the width it was last given
+            center.setSize(Math.max(1, width - insets.left - insets.right), Short.MAX_VALUE);
+            int height = insets.top + insets.bottom + center.getPreferredSize().height;
+            if (label.isVisible())
+            {
+                height += label.getPreferredSize().height;
+            }
+            return height;
+        }
+    }
+}
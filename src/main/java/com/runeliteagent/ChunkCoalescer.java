@@ -0,0 +1,79 @@
+package com.runeliteagent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import javax.swing.Timer;
+
+/**
+ * Batches streamed chunks for the EDT. Producers on any thread add to a lock-free queue; a Swing
+ * timer drains it at most once per frame and hands the whole batch to the flush callback, so a
+ * fast token stream costs one EDT task per frame instead of one per token.
+ * <p>
+ * One coalescer serves one turn. Once stopped, chunks still arriving from that turn are
+ * dropped.
+ */
+public class ChunkCoalescer<T>
+{
+    private final Queue<T> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<List<T>> flush;
+    private final Timer timer;
+    private volatile boolean stopped;
+
+    /**
+     * @param refreshRate maximum flushes per second
+     * @param flush receives each non-empty batch on the EDT, in arrival order
+     */
+    public ChunkCoalescer(int refreshRate, Consumer<List<T>> flush)
+    {
+        this.flush = flush;
+        this.timer = new Timer(1000 / Math.max(1, Math.min(refreshRate, 1000)), e -> flush());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * Queue a chunk. Safe to call from any thread.
+     */
+    public void offer(T chunk)
+    {
+        if (!stopped)
+        {
+            pending.offer(chunk);
+        }
+    }
+
+    public void start()
+    {
+        timer.start();
+    }
+
+    /**
+     * Drain the queue now. Must be called on the EDT.
+     */
+    public void flush()
+    {
+        if (pending.isEmpty())
+        {
+            return;
+        }
+        List<T> batch = new ArrayList<>();
+        T chunk;
+        while ((chunk = pending.poll()) != null)
+        {
+            batch.add(chunk);
+        }
+        flush.accept(batch);
+    }
+
+    /**
+     * Stop the timer and discard anything not yet flushed. Must be called on the EDT.
+     */
+    public void stop()
+    {
+        stopped = true;
+        timer.stop();
+        pending.clear();
+    }
+}
@@ -4,6 +4,8 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 
 @ConfigGroup("claudeagent")
 public interface ClaudeAgentConfig extends Config
@@ -15,6 +17,28 @@ public interface ClaudeAgentConfig extends Config
     )
     String apiSection = "apiSettings";
 
+    @ConfigSection(
+        name = "Wiki & Prices",
+        description = "OSRS Wiki and Grand Exchange price settings",
+        position = 1
+    )
+    String wikiSection = "wikiSettings";
+
+    @ConfigSection(
+        name = "Interface",
+        description = "Chat panel settings",
+        position = 2
+    )
+    String interfaceSection = "interfaceSettings";
+
+    @ConfigSection(
+        name = "Advanced",
+        description = "Service endpoints, e.g. for pointing the plugin at a local stand-in server",
+        position = 3,
+        closedByDefault = true
+    )
+    String advancedSection = "advancedSettings";
+
     @ConfigItem(
         keyName = "apiKey",
         name = "Claude API Key",
@@ -51,4 +75,144 @@ public interface ClaudeAgentConfig extends Config
     {
         return 4096;
     }
+
+    @ConfigItem(
+        keyName = "streamResponses",
+        name = "Stream Responses",
+        description = "Show Claude's answer token by token as it is generated",
+        position = 3,
+        section = apiSection
+    )
+    default boolean streamResponses()
+    {
+        return true;
+    }
+
+    @Range(
+        min = 10000
+    )
+    @ConfigItem(
+        keyName = "contextTokenCeiling",
+        name = "Context Token Ceiling",
+        description = "Approximate conversation size at which older turns are summarized to keep requests small",
+        position = 4,
+        section = apiSection
+    )
+    default int contextTokenCeiling()
+    {
+        return 60000;
+    }
+
+    @Range(
+        min = 1000
+    )
+    @ConfigItem(
+        keyName = "toolResultTokenBudget",
+        name = "Tool Result Budget",
+        description = "Approximate tokens of earlier tool results (wiki pages, plugin lists) kept verbatim in the conversation",
+        position = 5,
+        section = apiSection
+    )
+    default int toolResultTokenBudget()
+    {
+        return 20000;
+    }
+
+    @Range(
+        min = 10
+    )
+    @Units(Units.SECONDS)
+    @ConfigItem(
+        keyName = "priceRefreshSeconds",
+        name = "Price Refresh Interval",
+        description = "How often the bulk Grand Exchange price snapshot is refreshed while prices are being asked about",
+        position = 0,
+        section = wikiSection
+    )
+    default int priceRefreshSeconds()
+    {
+        return 60;
+    }
+
+    @Range(
+        max = 256
+    )
+    @ConfigItem(
+        keyName = "searchIndexMegabytes",
+        name = "Local Search Index (MB)",
+        description = "Memory for the local full-text index of fetched wiki pages that answers searches without a request; 0 disables it",
+        position = 1,
+        section = wikiSection
+    )
+    default int searchIndexMegabytes()
+    {
+        return 16;
+    }
+
+    @Range(
+        max = 5
+    )
+    @ConfigItem(
+        keyName = "prefetchResults",
+        name = "Prefetch Search Results",
+        description = "How many of the top wiki search results to download in the background, ready for a follow-up page read; 0 disables prefetching",
+        position = 2,
+        section = wikiSection
+    )
+    default int prefetchResults()
+    {
+        return 2;
+    }
+
+    @Range(
+        min = 1,
+        max = 120
+    )
+    @ConfigItem(
+        keyName = "uiRefreshRate",
+        name = "Streaming Refresh Rate",
+        description = "Maximum number of times per second the chat panel is updated while a response streams in",
+        position = 0,
+        section = interfaceSection
+    )
+    default int uiRefreshRate()
+    {
+        return 30;
+    }
+
+    @ConfigItem(
+        keyName = "apiBaseUrl",
+        name = "Claude API Base URL",
+        description = "Base URL of the Anthropic Messages API; requests go to <base>/v1/messages",
+        position = 0,
+        section = advancedSection
+    )
+    default String apiBaseUrl()
+    {
+        return ClaudeApiClient.DEFAULT_API_BASE_URL;
+    }
+
+    @ConfigItem(
+        keyName = "wikiApiUrl",
+        name = "Wiki API URL",
+        description = "MediaWiki api.php endpoint of the OSRS Wiki",
+        position = 1,
+        section = advancedSection
+    )
+    default String wikiApiUrl()
+    {
+        return OsrsWikiClient.WIKI_API;
+    }
+
+    @ConfigItem(
+        keyName = "pricesApiUrl",
+        name = "Prices API URL",
+        description = "Base URL of the OSRS Wiki real-time prices API",
+        position = 2,
+        section = advancedSection
+    )
+    default String pricesApiUrl()
+    {
+        return OsrsWikiClient.PRICES_API;
+    }
 }
@@ -7,13 +7,14 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JPasswordField;
-import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.SwingUtilities;
@@ -35,11 +36,15 @@ public class ClaudeAgentPanel extends PluginPanel
     private static final Color ACCENT_COLOR = new Color(52, 152, 219);
     private static final Color ERROR_COLOR = new Color(231, 76, 60);
     private static final Color SUCCESS_COLOR = new Color(46, 204, 113);
+    private static final Color CODE_BG = new Color(20, 26, 31);
     private static final Font MSG_FONT = new Font("SansSerif", Font.PLAIN, 12);
     private static final Font LABEL_FONT = new Font("SansSerif", Font.BOLD, 11);
 
     private final AgentOrchestrator orchestrator;
     private final ConfigManager configManager;
+    private final ClaudeAgentConfig config;
+    private final Runnable onFirstOpen;
+    private boolean opened = false;
 
     private CardLayout cardLayout;
     private JPanel cardPanel;
@@ -49,23 +54,38 @@ public class ClaudeAgentPanel extends PluginPanel
     private JLabel setupStatus;
 
     // Chat view
-    private JPanel chatContainer;
+    private ChatTranscript transcript;
     private JScrollPane chatScroll;
     private JTextArea inputArea;
     private JButton sendButton;
     private JButton clearButton;
-    private JPanel currentAssistantBubble;
-    private JTextArea currentAssistantText;
+    private ChatMessage currentAssistantMessage;
     private boolean isProcessing = false;
+    private AgentTurn activeTurn;
+    private ChunkCoalescer<StreamUpdate> activeChunks;
 
-    public ClaudeAgentPanel(AgentOrchestrator orchestrator, ConfigManager configManager)
+    public ClaudeAgentPanel(AgentOrchestrator orchestrator, ConfigManager configManager, ClaudeAgentConfig config,
+        Runnable onFirstOpen)
     {
         super(false);
         this.orchestrator = orchestrator;
         this.configManager = configManager;
+        this.config = config;
+        this.onFirstOpen = onFirstOpen;
         buildUI();
     }
 
+    @Override
+    public void onActivate()
+    {
+        // Opening the sidebar is a good hint that a question is coming
+        if (!opened)
+        {
+            opened = true;
+            onFirstOpen.run();
+        }
+    }
+
     private void buildUI()
     {
         setLayout(new BorderLayout());
@@ -278,12 +298,9 @@ public class ClaudeAgentPanel extends PluginPanel
         chat.add(header, BorderLayout.NORTH);
 
         // Chat area
-        chatContainer = new JPanel();
-        chatContainer.setLayout(new BoxLayout(chatContainer, BoxLayout.Y_AXIS));
-        chatContainer.setBackground(ColorScheme.DARK_GRAY_COLOR);
-        chatContainer.setBorder(new EmptyBorder(5, 5, 5, 5));
+        transcript = new ChatTranscript(ColorScheme.DARK_GRAY_COLOR);
 
-        chatScroll = new JScrollPane(chatContainer);
+        chatScroll = new JScrollPane(transcript);
         chatScroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         chatScroll.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         chatScroll.setBorder(null);
@@ -328,7 +345,16 @@ public class ClaudeAgentPanel extends PluginPanel
         sendButton.setBorder(new EmptyBorder(8, 14, 8, 14));
         sendButton.setFocusPainted(false);
         sendButton.setPreferredSize(new Dimension(60, 0));
-        sendButton.addActionListener(e -> sendMessage());
+        sendButton.addActionListener(e -> {
+            if (isProcessing)
+            {
+                stopTurn();
+            }
+            else
+            {
+                sendMessage();
+            }
+        });
         inputPanel.add(sendButton, BorderLayout.EAST);
 
         chat.add(inputPanel, BorderLayout.SOUTH);
@@ -359,166 +385,180 @@ public class ClaudeAgentPanel extends PluginPanel
             return;
         }
 
-        isProcessing = true;
-        sendButton.setEnabled(false);
-        sendButton.setText("...");
+        setProcessing(true);
         inputArea.setText("");
 
         addUserMessage(text);
-        currentAssistantBubble = null;
-        currentAssistantText = null;
-
-        orchestrator.sendMessage(text,
-            chunk -> SwingUtilities.invokeLater(() -> {
-                if (chunk.startsWith("\n🔧"))
-                {
-                    addToolMessage(chunk.trim());
-                }
-                else
+        currentAssistantMessage = null;
+
+        // Streamed chunks are batched and applied once per frame rather than one EDT task each.
+        // Markdown is parsed on the streaming thread, so the EDT only applies document deltas.
+        MarkdownRenderer markdown = new MarkdownRenderer(MSG_FONT, TEXT_COLOR, MUTED_COLOR, CODE_BG);
+        ChunkCoalescer<StreamUpdate> chunks = new ChunkCoalescer<>(config.uiRefreshRate(), this::applyChunks);
+        activeChunks = chunks;
+        chunks.start();
+
+        // Callbacks of a stopped turn can still be queued on the EDT; they are dropped once
+        // the turn is no longer the active one
+        AgentTurn[] turn = new AgentTurn[1];
+        turn[0] = orchestrator.sendMessage(text,
+            chunk -> chunks.offer(chunk.startsWith("\n🔧")
+                ? new StreamUpdate(chunk.trim(), null)
+                : new StreamUpdate(null, markdown.feed(chunk))),
+            complete -> SwingUtilities.invokeLater(() -> {
+                if (turn[0] != activeTurn)
                 {
-                    appendToAssistantMessage(chunk);
+                    return;
                 }
-            }),
-            complete -> SwingUtilities.invokeLater(() -> {
-                isProcessing = false;
-                sendButton.setEnabled(true);
-                sendButton.setText("Send");
-                addDoneIndicator();
+                chunks.flush();
+                setProcessing(false);
+                addDoneIndicator(turn[0].getTrace().footer());
                 scrollToBottom();
             }),
             error -> SwingUtilities.invokeLater(() -> {
+                if (turn[0] != activeTurn)
+                {
+                    return;
+                }
+                chunks.flush();
                 addSystemMessage("❌ " + error);
-                isProcessing = false;
-                sendButton.setEnabled(true);
-                sendButton.setText("Send");
+                setProcessing(false);
             })
         );
+        activeTurn = turn[0];
     }
 
-    private void addUserMessage(String text)
+    private void stopTurn()
     {
-        JPanel bubble = createBubble("You", text, USER_BG, ACCENT_COLOR);
-        chatContainer.add(bubble);
-        chatContainer.revalidate();
-        scrollToBottom();
+        if (activeTurn == null)
+        {
+            return;
+        }
+        if (!activeTurn.cancel())
+        {
+            // The reply already finished; its completion callback is on its way and keeps it
+            return;
+        }
+        setProcessing(false);
+        currentAssistantMessage = null;
+        addSystemMessage("⏹ Stopped. This exchange was removed from the conversation.");
     }
 
-    private void appendToAssistantMessage(String text)
+    private void setProcessing(boolean processing)
     {
-        if (currentAssistantBubble == null)
+        isProcessing = processing;
+        if (!processing)
         {
-            currentAssistantText = new JTextArea();
-            currentAssistantText.setFont(MSG_FONT);
-            currentAssistantText.setForeground(TEXT_COLOR);
-            currentAssistantText.setBackground(ASSISTANT_BG);
-            currentAssistantText.setEditable(false);
-            currentAssistantText.setLineWrap(true);
-            currentAssistantText.setWrapStyleWord(true);
-            currentAssistantText.setBorder(null);
-
-            currentAssistantBubble = new JPanel(new BorderLayout());
-            currentAssistantBubble.setBackground(ASSISTANT_BG);
-            currentAssistantBubble.setBorder(BorderFactory.createCompoundBorder(
-                new EmptyBorder(3, 0, 3, 0),
-                new EmptyBorder(8, 10, 8, 10)
-            ));
-            currentAssistantBubble.setMaximumSize(new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE));
-
-            JLabel label = new JLabel("Claude");
-            label.setFont(LABEL_FONT);
-            label.setForeground(SUCCESS_COLOR);
-            label.setBorder(new EmptyBorder(0, 0, 4, 0));
-            currentAssistantBubble.add(label, BorderLayout.NORTH);
-            currentAssistantBubble.add(currentAssistantText, BorderLayout.CENTER);
-
-            chatContainer.add(currentAssistantBubble);
-            chatContainer.revalidate();
+            activeTurn = null;
+            if (activeChunks != null)
+            {
+                activeChunks.stop();
+                activeChunks = null;
+            }
         }
+        sendButton.setText(processing ? "Stop" : "Send");
+        sendButton.setBackground(processing ? ERROR_COLOR : ACCENT_COLOR);
+    }
 
-        currentAssistantText.append(text);
-        chatContainer.revalidate();
+    private void addUserMessage(String text)
+    {
+        addMessage("You", text, USER_BG, ACCENT_COLOR);
+    }
+
+    /**
+     * Apply one frame's worth of streamed chunks, merging consecutive markdown deltas into a
+     * single document change, then lay out and scroll once.
+     */
+    private void applyChunks(List<StreamUpdate> batch)
+    {
+        List<MarkdownRenderer.Delta> deltas = new ArrayList<>();
+        for (StreamUpdate update : batch)
+        {
+            if (update.toolLine != null)
+            {
+                appendToAssistantMessage(deltas);
+                addToolMessage(update.toolLine);
+            }
+            else
+            {
+                deltas.add(update.delta);
+            }
+        }
+        appendToAssistantMessage(deltas);
         scrollToBottom();
     }
 
-    private void addDoneIndicator()
+    private void appendToAssistantMessage(List<MarkdownRenderer.Delta> deltas)
+    {
+        if (deltas.isEmpty())
+        {
+            return;
+        }
+        if (currentAssistantMessage == null)
+        {
+            currentAssistantMessage = ChatMessage.styled("Claude", ASSISTANT_BG, SUCCESS_COLOR, TEXT_COLOR, MSG_FONT);
+            transcript.addMessage(currentAssistantMessage);
+        }
+        currentAssistantMessage.apply(MarkdownRenderer.Delta.merge(deltas));
+        transcript.messageChanged(currentAssistantMessage);
+        deltas.clear();
+    }
+
+    private void addDoneIndicator(String footer)
     {
-        JPanel indicator = new JPanel(new BorderLayout());
-        indicator.setBackground(ColorScheme.DARK_GRAY_COLOR);
-        indicator.setBorder(new EmptyBorder(2, 10, 2, 10));
-        indicator.setMaximumSize(new Dimension(Integer.MAX_VALUE, 20));
-
-        JLabel doneLabel = new JLabel("✅ Done");
-        doneLabel.setFont(new Font("SansSerif", Font.PLAIN, 10));
-        doneLabel.setForeground(SUCCESS_COLOR);
-        indicator.add(doneLabel, BorderLayout.WEST);
-
-        chatContainer.add(indicator);
-        chatContainer.revalidate();
-        currentAssistantBubble = null;
-        currentAssistantText = null;
+        transcript.addMessage(new ChatMessage(null, "✅ " + footer, ColorScheme.DARK_GRAY_COLOR, SUCCESS_COLOR,
+            SUCCESS_COLOR, new Font("SansSerif", Font.PLAIN, 10)));
+        currentAssistantMessage = null;
     }
 
     private void addToolMessage(String text)
     {
-        JPanel bubble = createBubble("Tool", text, TOOL_BG, new Color(241, 196, 15));
-        chatContainer.add(bubble);
-        chatContainer.revalidate();
-        scrollToBottom();
+        transcript.addMessage(new ChatMessage("Tool", text, TOOL_BG, new Color(241, 196, 15), TEXT_COLOR, MSG_FONT));
     }
 
     private void addSystemMessage(String text)
     {
-        JPanel bubble = createBubble("System", text, ColorScheme.DARKER_GRAY_COLOR, MUTED_COLOR);
-        chatContainer.add(bubble);
-        chatContainer.revalidate();
-        scrollToBottom();
+        addMessage("System", text, ColorScheme.DARKER_GRAY_COLOR, MUTED_COLOR);
     }
 
-    private JPanel createBubble(String sender, String text, Color bg, Color labelColor)
+    private void addMessage(String sender, String text, Color bg, Color labelColor)
     {
-        JPanel bubble = new JPanel(new BorderLayout());
-        bubble.setBackground(bg);
-        bubble.setBorder(BorderFactory.createCompoundBorder(
-            new EmptyBorder(3, 0, 3, 0),
-            new EmptyBorder(8, 10, 8, 10)
-        ));
-        bubble.setMaximumSize(new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE));
-
-        JLabel label = new JLabel(sender);
-        label.setFont(LABEL_FONT);
-        label.setForeground(labelColor);
-        label.setBorder(new EmptyBorder(0, 0, 4, 0));
-        bubble.add(label, BorderLayout.NORTH);
-
-        JTextArea content = new JTextArea(text);
-        content.setFont(MSG_FONT);
-        content.setForeground(TEXT_COLOR);
-        content.setBackground(bg);
-        content.setEditable(false);
-        content.setLineWrap(true);
-        content.setWrapStyleWord(true);
-        content.setBorder(null);
-        bubble.add(content, BorderLayout.CENTER);
-
-        return bubble;
+        transcript.addMessage(new ChatMessage(sender, text, bg, labelColor, TEXT_COLOR, MSG_FONT));
+        scrollToBottom();
     }
 
     private void scrollToBottom()
     {
-        SwingUtilities.invokeLater(() -> {
-            JScrollBar vertical = chatScroll.getVerticalScrollBar();
-            vertical.setValue(vertical.getMaximum());
-        });
+        // Lay out the transcript once so the scroll sees its new height
+        chatScroll.validate();
+        transcript.scrollToBottom();
     }
 
     private void clearChat()
     {
-        chatContainer.removeAll();
-        chatContainer.revalidate();
-        chatContainer.repaint();
-        currentAssistantBubble = null;
-        currentAssistantText = null;
+        if (activeTurn != null)
+        {
+            activeTurn.cancel();
+            setProcessing(false);
+        }
+        transcript.clear();
+        currentAssistantMessage = null;
         orchestrator.clearHistory();
         addSystemMessage("Chat cleared. Ready for a new conversation.");
     }
+
+    /**
+     * A streamed item: either a tool status line or a parsed markdown delta.
+     */
+    private static class StreamUpdate
+    {
+        private final String toolLine;
+        private final MarkdownRenderer.Delta delta;
+
+        StreamUpdate(String toolLine, MarkdownRenderer.Delta delta)
+        {
+            this.toolLine = toolLine;
+            this.delta = delta;
+        }
+    }
 }
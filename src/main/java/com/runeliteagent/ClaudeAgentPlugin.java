@@ -2,16 +2,29 @@ package com.runeliteagent;
 
 import com.google.inject.Provides;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Arrays;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.StatChanged;
+import net.runelite.client.RuneLite;
 import net.runelite.client.config.ConfigManager;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.events.PluginChanged;
+import net.runelite.client.events.ProfileChanged;
+import net.runelite.client.events.RuneScapeProfileChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.plugins.PluginManager;
 import net.runelite.client.ui.ClientToolbar;
 import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.util.ImageUtil;
+import okhttp3.OkHttpClient;
 
 @Slf4j
 @PluginDescriptor(
@@ -21,6 +34,8 @@ import net.runelite.client.util.ImageUtil;
 )
 public class ClaudeAgentPlugin extends Plugin
 {
+    private static final File WIKI_STORE_DIR = new File(new File(RuneLite.RUNELITE_DIR, "claude-agent"), "wiki-pages");
+
     @Inject
     private Client client;
 
@@ -36,24 +51,40 @@ public class ClaudeAgentPlugin extends Plugin
     @Inject
     private PluginManager pluginManager;
 
+    @Inject
+    private OkHttpClient okHttpClient;
+
     private ClaudeAgentPanel panel;
     private NavigationButton navButton;
+    private SharedHttpClient httpClient;
     private RuneLiteController runeLiteController;
     private OsrsWikiClient wikiClient;
     private ClaudeApiClient apiClient;
     private AgentOrchestrator orchestrator;
 
+    // Set from client-thread event handlers only
+    private boolean gameStateDirty;
+
     @Override
     protected void startUp() throws Exception
     {
         log.info("Claude Agent plugin started");
 
-        runeLiteController = new RuneLiteController(configManager, pluginManager, client);
-        wikiClient = new OsrsWikiClient();
-        apiClient = new ClaudeApiClient(configManager);
+        httpClient = new SharedHttpClient(okHttpClient);
+        runeLiteController = new RuneLiteController(configManager, pluginManager);
+        runeLiteController.rebuildConfigIndex();
+        // Take the first snapshot on the next tick in case we were enabled while logged in
+        gameStateDirty = true;
+        wikiClient = new OsrsWikiClient(config, httpClient.getClient(),
+            new WikiPageStore(WIKI_STORE_DIR));
+        apiClient = new ClaudeApiClient(configManager, httpClient.getClient());
         orchestrator = new AgentOrchestrator(apiClient, runeLiteController, wikiClient, config);
 
-        panel = new ClaudeAgentPanel(orchestrator, configManager);
+        panel = new ClaudeAgentPanel(orchestrator, configManager, config, () -> httpClient.warmUp(Arrays.asList(
+            apiClient.getApiUrl(),
+            wikiClient.getWikiApiUrl(),
+            wikiClient.getPricesApiUrl() + "/mapping"
+        )));
 
         final BufferedImage icon = ImageUtil.loadImageResource(getClass(), "/icon.png");
 
@@ -80,6 +111,79 @@ public class ClaudeAgentPlugin extends Plugin
         {
             wikiClient.shutdown();
         }
+        if (httpClient != null)
+        {
+            httpClient.shutdown();
+        }
+    }
+
+    @Subscribe
+    public void onStatChanged(StatChanged event)
+    {
+        gameStateDirty = true;
+    }
+
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event)
+    {
+        if (event.getGameState() == GameState.LOGGED_IN)
+        {
+            gameStateDirty = true;
+        }
+        else if (event.getGameState() == GameState.LOGIN_SCREEN && runeLiteController != null)
+        {
+            runeLiteController.setGameState(GameStateSnapshot.LOGGED_OUT);
+        }
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event)
+    {
+        // Coalesce all stat changes of a tick into one snapshot
+        if (!gameStateDirty || runeLiteController == null)
+        {
+            return;
+        }
+        GameStateSnapshot snapshot = GameStateSnapshot.capture(client);
+        runeLiteController.setGameState(snapshot);
+        // Keep trying until the local player exists
+        gameStateDirty = !snapshot.isLoggedIn();
+    }
+
+    @Subscribe
+    public void onConfigChanged(ConfigChanged event)
+    {
+        if (runeLiteController != null)
+        {
+            runeLiteController.onConfigChanged(event);
+        }
+    }
+
+    @Subscribe
+    public void onPluginChanged(PluginChanged event)
+    {
+        if (runeLiteController != null)
+        {
+            runeLiteController.onPluginChanged();
+        }
+    }
+
+    @Subscribe
+    public void onProfileChanged(ProfileChanged event)
+    {
+        if (runeLiteController != null)
+        {
+            runeLiteController.onProfileChanged();
+        }
+    }
+
+    @Subscribe
+    public void onRuneScapeProfileChanged(RuneScapeProfileChanged event)
+    {
+        if (runeLiteController != null)
+        {
+            runeLiteController.onProfileChanged();
+        }
     }
 
     @Provides
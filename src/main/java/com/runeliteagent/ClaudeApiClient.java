@@ -2,36 +2,53 @@ package com.runeliteagent;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.config.ConfigManager;
-import okhttp3.MediaType;
+import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.RequestBody;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
 
 @Slf4j
 public class ClaudeApiClient
 {
-    private static final String API_URL = "https://api.anthropic.com/v1/messages";
-    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    static final String DEFAULT_API_BASE_URL = "https://api.anthropic.com";
+    private static final String MESSAGES_PATH = "/v1/messages";
     private static final String CONFIG_GROUP = "claudeagent";
     private static final Gson GSON = new Gson();
 
-    private final ConfigManager configManager;
+    private final Function<String, String> settings;
     private final OkHttpClient httpClient;
+    private final JsonArray systemBlocks = buildSystemBlocks();
+    private final MessagesRequestBody.Segments requestSegments = new MessagesRequestBody.Segments(GSON);
+    private JsonArray markedToolsSource;
+    private JsonArray markedTools;
 
-    public ClaudeApiClient(ConfigManager configManager)
+    public ClaudeApiClient(ConfigManager configManager, OkHttpClient sharedClient)
     {
-        this.configManager = configManager;
-        this.httpClient = new OkHttpClient.Builder()
-            .connectTimeout(30, TimeUnit.SECONDS)
+        this(key -> configManager.getConfiguration(CONFIG_GROUP, key), sharedClient);
+    }
+
+    /**
+     * @param settings reads a claudeagent config key, returning null when unset
+     */
+    ClaudeApiClient(Function<String, String> settings, OkHttpClient sharedClient)
+    {
+        this.settings = settings;
+        // Shares the connection pool and dispatcher; only the read timeout differs for long generations
+        this.httpClient = sharedClient.newBuilder()
             .readTimeout(120, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
             .build();
     }
 
@@ -40,19 +57,19 @@ public class ClaudeApiClient
      */
     private String getApiKey()
     {
-        String key = configManager.getConfiguration(CONFIG_GROUP, "apiKey");
+        String key = settings.apply("apiKey");
         return key != null ? key.trim() : "";
     }
 
     private String getModel()
     {
-        String model = configManager.getConfiguration(CONFIG_GROUP, "modelId");
+        String model = settings.apply("modelId");
         return model != null && !model.isEmpty() ? model : "claude-sonnet-4-20250514";
     }
 
     private int getMaxTokens()
     {
-        String val = configManager.getConfiguration(CONFIG_GROUP, "maxTokens");
+        String val = settings.apply("maxTokens");
         try
         {
             return val != null ? Integer.parseInt(val) : 4096;
@@ -63,7 +80,32 @@ public class ClaudeApiClient
         }
     }
 
+    /**
+     * The Messages API endpoint under the configured base URL.
+     */
+    public String getApiUrl()
+    {
+        String base = settings.apply("apiBaseUrl");
+        if (base == null || base.trim().isEmpty())
+        {
+            base = DEFAULT_API_BASE_URL;
+        }
+        base = base.trim();
+        return (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + MESSAGES_PATH;
+    }
+
     public JsonObject sendMessage(JsonArray messages, JsonArray tools) throws IOException
+    {
+        return sendMessage(messages, tools, null, null);
+    }
+
+    /**
+     * Send a request to the Messages API. When onTextDelta is non-null the request is made with
+     * {@code stream: true} and text deltas are delivered as they arrive; the returned object has the
+     * same shape as a non-streaming response either way. If a turn is given, the HTTP call is
+     * registered with it so cancelling the turn aborts the request.
+     */
+    public JsonObject sendMessage(JsonArray messages, JsonArray tools, Consumer<String> onTextDelta, AgentTurn turn) throws IOException
     {
         String apiKey = getApiKey();
         if (apiKey.isEmpty())
@@ -73,39 +115,298 @@ public class ClaudeApiClient
 
         log.debug("Sending request to Claude API");
 
-        JsonObject requestBody = new JsonObject();
-        requestBody.addProperty("model", getModel());
-        requestBody.addProperty("max_tokens", getMaxTokens());
-        requestBody.add("messages", messages);
-        requestBody.addProperty("system", buildSystemPrompt());
+        JsonObject header = new JsonObject();
+        header.addProperty("model", getModel());
+        header.addProperty("max_tokens", getMaxTokens());
 
-        if (tools != null && tools.size() > 0)
+        boolean stream = onTextDelta != null;
+        if (stream)
         {
-            requestBody.add("tools", tools);
+            header.addProperty("stream", true);
         }
 
-        String jsonBody = GSON.toJson(requestBody);
+        // Cache breakpoints: tools and system are a stable prefix, and the rolling breakpoint on the
+        // newest message lets the next iteration read everything before it from the cache
+        if (tools != markedToolsSource)
+        {
+            markedToolsSource = tools;
+            markedTools = tools != null ? withCacheBreakpoint(tools) : null;
+        }
+        JsonObject lastMessage = messages.size() > 0
+            ? withCacheBreakpoint(messages.get(messages.size() - 1).getAsJsonObject())
+            : null;
 
         Request request = new Request.Builder()
-            .url(API_URL)
+            .url(getApiUrl())
             .header("x-api-key", apiKey)
             .header("anthropic-version", "2023-06-01")
             .header("content-type", "application/json")
-            .post(RequestBody.create(jsonBody, JSON))
+            .post(requestSegments.build(header, systemBlocks, markedTools, messages, lastMessage))
             .build();
 
-        try (Response response = httpClient.newCall(request).execute())
+        Call call = httpClient.newCall(request);
+        if (turn != null)
         {
-            String responseBody = response.body() != null ? response.body().string() : "";
+            turn.setActiveCall(call);
+        }
+
+        JsonObject message;
+        try (Response response = call.execute())
+        {
+            if (!response.isSuccessful() || !stream || response.body() == null)
+            {
+                String responseBody = response.body() != null ? response.body().string() : "";
+
+                if (!response.isSuccessful())
+                {
+                    log.error("Claude API error ({}): {}", response.code(), responseBody);
+                    throw new IOException("Claude API error (HTTP " + response.code() + "): " + responseBody);
+                }
 
-            if (!response.isSuccessful())
+                message = JsonParser.parseString(responseBody).getAsJsonObject();
+            }
+            else
             {
-                log.error("Claude API error ({}): {}", response.code(), responseBody);
-                throw new IOException("Claude API error (HTTP " + response.code() + "): " + responseBody);
+                message = readEventStream(response.body(), onTextDelta);
             }
+        }
+
+        logUsage(message);
+        return message;
+    }
 
-            return JsonParser.parseString(responseBody).getAsJsonObject();
+    private void logUsage(JsonObject message)
+    {
+        if (!message.has("usage"))
+        {
+            return;
         }
+        JsonObject usage = message.getAsJsonObject("usage");
+        log.debug("Claude API usage: input={}, output={}, cache_read={}, cache_creation={}",
+            usageCount(usage, "input_tokens"),
+            usageCount(usage, "output_tokens"),
+            usageCount(usage, "cache_read_input_tokens"),
+            usageCount(usage, "cache_creation_input_tokens"));
+    }
+
+    /**
+     * Read a token count from a response {@code usage} object, treating absent or null fields as zero.
+     */
+    public static int usageCount(JsonObject usage, String field)
+    {
+        return usage != null && usage.has(field) && !usage.get(field).isJsonNull() ? usage.get(field).getAsInt() : 0;
+    }
+
+    /**
+     * Copy an array of tools with an ephemeral cache_control marker on its last entry.
+     * Only the last entry is copied; the caller's objects are never modified, so breakpoints do
+     * not pile up in the conversation history.
+     */
+    private static JsonArray withCacheBreakpoint(JsonArray entries)
+    {
+        JsonArray marked = new JsonArray(entries.size());
+        for (int i = 0; i < entries.size() - 1; i++)
+        {
+            marked.add(entries.get(i));
+        }
+        if (entries.size() > 0)
+        {
+            marked.add(withCacheBreakpoint(entries.get(entries.size() - 1).getAsJsonObject()));
+        }
+        return marked;
+    }
+
+    /**
+     * Copy a tool definition or message with an ephemeral cache_control marker.
+     */
+    private static JsonObject withCacheBreakpoint(JsonObject entry)
+    {
+        JsonObject last = entry.deepCopy();
+        if (last.has("role"))
+        {
+            // A message: the breakpoint goes on its final content block
+            JsonElement content = last.get("content");
+            JsonArray blocks;
+            if (content.isJsonArray())
+            {
+                blocks = content.getAsJsonArray();
+            }
+            else
+            {
+                JsonObject textBlock = new JsonObject();
+                textBlock.addProperty("type", "text");
+                textBlock.addProperty("text", content.getAsString());
+                blocks = new JsonArray();
+                blocks.add(textBlock);
+                last.add("content", blocks);
+            }
+            if (blocks.size() > 0)
+            {
+                blocks.get(blocks.size() - 1).getAsJsonObject().add("cache_control", ephemeral());
+            }
+        }
+        else
+        {
+            last.add("cache_control", ephemeral());
+        }
+        return last;
+    }
+
+    private static JsonObject ephemeral()
+    {
+        JsonObject cacheControl = new JsonObject();
+        cacheControl.addProperty("type", "ephemeral");
+        return cacheControl;
+    }
+
+    private JsonArray buildSystemBlocks()
+    {
+        JsonObject block = new JsonObject();
+        block.addProperty("type", "text");
+        block.addProperty("text", buildSystemPrompt());
+        block.add("cache_control", ephemeral());
+
+        JsonArray system = new JsonArray();
+        system.add(block);
+        return system;
+    }
+
+    /**
+     * Consume a server-sent event stream and rebuild the message it describes.
+     * Text deltas are forwarded as they are read; text and tool_use input fragments are
+     * accumulated per block and folded back into the block once it stops.
+     */
+    private JsonObject readEventStream(ResponseBody body, Consumer<String> onTextDelta) throws IOException
+    {
+        BufferedSource source = body.source();
+        JsonObject message = new JsonObject();
+        List<JsonObject> blocks = new ArrayList<>();
+        List<StringBuilder> buffers = new ArrayList<>();
+        boolean stopped = false;
+
+        String line;
+        while (!stopped && (line = source.readUtf8Line()) != null)
+        {
+            if (!line.startsWith("data:"))
+            {
+                // Blank separators, "event:" names (the type is repeated in the data) and comments
+                continue;
+            }
+
+            JsonObject event = JsonParser.parseString(line.substring(5).trim()).getAsJsonObject();
+            String type = event.has("type") ? event.get("type").getAsString() : "";
+
+            switch (type)
+            {
+                case "message_start":
+                    message = event.getAsJsonObject("message");
+                    break;
+
+                case "content_block_start":
+                {
+                    int index = event.get("index").getAsInt();
+                    while (blocks.size() <= index)
+                    {
+                        blocks.add(null);
+                        buffers.add(null);
+                    }
+                    blocks.set(index, event.getAsJsonObject("content_block"));
+                    buffers.set(index, new StringBuilder());
+                    break;
+                }
+
+                case "content_block_delta":
+                {
+                    int index = event.get("index").getAsInt();
+                    JsonObject delta = event.getAsJsonObject("delta");
+                    String deltaType = delta.get("type").getAsString();
+
+                    if ("text_delta".equals(deltaType))
+                    {
+                        String text = delta.get("text").getAsString();
+                        buffers.get(index).append(text);
+                        onTextDelta.accept(text);
+                    }
+                    else if ("input_json_delta".equals(deltaType))
+                    {
+                        buffers.get(index).append(delta.get("partial_json").getAsString());
+                    }
+                    break;
+                }
+
+                case "content_block_stop":
+                {
+                    int index = event.get("index").getAsInt();
+                    JsonObject block = blocks.get(index);
+                    StringBuilder buffer = buffers.get(index);
+                    String blockType = block.get("type").getAsString();
+                    if ("text".equals(blockType))
+                    {
+                        block.addProperty("text", buffer.toString());
+                    }
+                    else if ("tool_use".equals(blockType))
+                    {
+                        JsonElement input = buffer.length() > 0
+                            ? JsonParser.parseString(buffer.toString())
+                            : new JsonObject();
+                        block.add("input", input);
+                    }
+                    break;
+                }
+
+                case "message_delta":
+                {
+                    JsonObject delta = event.getAsJsonObject("delta");
+                    for (String key : delta.keySet())
+                    {
+                        message.add(key, delta.get(key));
+                    }
+                    if (event.has("usage"))
+                    {
+                        JsonObject usage = message.has("usage") ? message.getAsJsonObject("usage") : new JsonObject();
+                        JsonObject deltaUsage = event.getAsJsonObject("usage");
+                        for (String key : deltaUsage.keySet())
+                        {
+                            usage.add(key, deltaUsage.get(key));
+                        }
+                        message.add("usage", usage);
+                    }
+                    break;
+                }
+
+                case "error":
+                {
+                    JsonObject error = event.getAsJsonObject("error");
+                    String errorMessage = error != null && error.has("message") ? error.get("message").getAsString() : line;
+                    log.error("Claude API stream error: {}", errorMessage);
+                    throw new IOException("Claude API stream error: " + errorMessage);
+                }
+
+                case "message_stop":
+                    stopped = true;
+                    break;
+
+                default:
+                    // ping and any event types added later
+                    break;
+            }
+        }
+
+        if (!stopped)
+        {
+            throw new IOException("Claude API stream ended before message_stop");
+        }
+
+        JsonArray content = new JsonArray();
+        for (JsonObject block : blocks)
+        {
+            if (block != null)
+            {
+                content.add(block);
+            }
+        }
+        message.add("content", content);
+        return message;
     }
 
     private String buildSystemPrompt()
@@ -122,14 +423,9 @@ public class ClaudeApiClient
             + "- When toggling plugins, confirm what you've done after the action\n"
             + "- Be concise but thorough. Format responses clearly.\n"
             + "- If a user asks about a quest, boss, item, or mechanic, look it up on the wiki rather than relying on memory\n"
+            + "- For long wiki articles such as boss strategies and quest guides, read only the relevant sections with get_wiki_section\n"
             + "- For plugin config changes, list the current config first so the user can see what's available\n"
             + "- Always explain what changes you're making before making them\n"
             + "- You can chain multiple tool calls in a single response when needed";
     }
-
-    public void shutdown()
-    {
-        httpClient.dispatcher().executorService().shutdown();
-        httpClient.connectionPool().evictAll();
-    }
 }
@@ -0,0 +1,100 @@
+package com.runeliteagent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted group -> keys index over the active profile's configuration, built once from
+ * ConfigManager and then kept current from ConfigChanged events. Prefix queries walk only the
+ * matching range, so listing is proportional to the page returned rather than to the profile.
+ */
+public class ConfigKeyIndex
+{
+    private static final char PREFIX_END = '\uffff';
+
+    private volatile ConcurrentSkipListMap<String, NavigableSet<String>> groups = new ConcurrentSkipListMap<>();
+
+    /**
+     * Replace the index contents with a full key listing in {@code group.key} form.
+     */
+    public void rebuild(Collection<String> qualifiedKeys)
+    {
+        ConcurrentSkipListMap<String, NavigableSet<String>> rebuilt = new ConcurrentSkipListMap<>();
+        for (String qualified : qualifiedKeys)
+        {
+            int dot = qualified.indexOf('.');
+            if (dot > 0)
+            {
+                rebuilt.computeIfAbsent(qualified.substring(0, dot), g -> new ConcurrentSkipListSet<>())
+                    .add(qualified.substring(dot + 1));
+            }
+        }
+        groups = rebuilt;
+    }
+
+    /**
+     * Record a key being set ({@code present}) or unset.
+     */
+    public void update(String group, String key, boolean present)
+    {
+        if (present)
+        {
+            groups.compute(group, (g, keys) -> {
+                NavigableSet<String> set = keys != null ? keys : new ConcurrentSkipListSet<>();
+                set.add(key);
+                return set;
+            });
+        }
+        else
+        {
+            groups.computeIfPresent(group, (g, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * @return up to {@code limit + 1} group names starting with prefix, skipping the first
+     * {@code offset}; the extra element tells the caller there is another page
+     */
+    public List<String> groups(String prefix, int offset, int limit)
+    {
+        return page(groups.subMap(prefix, true, prefix + PREFIX_END, false).keySet(), offset, limit);
+    }
+
+    /**
+     * @return up to {@code limit + 1} keys of the group starting with prefix, skipping the first
+     * {@code offset}; the extra element tells the caller there is another page
+     */
+    public List<String> keys(String group, String prefix, int offset, int limit)
+    {
+        NavigableSet<String> keys = groups.get(group);
+        if (keys == null)
+        {
+            return Collections.emptyList();
+        }
+        return page(keys.subSet(prefix, true, prefix + PREFIX_END, false), offset, limit);
+    }
+
+    private static List<String> page(Collection<String> range, int offset, int limit)
+    {
+        List<String> page = new ArrayList<>(Math.min(limit + 1, 256));
+        Iterator<String> it = range.iterator();
+        for (int skipped = 0; skipped < offset && it.hasNext(); skipped++)
+        {
+            it.next();
+        }
+        while (it.hasNext() && page.size() <= limit)
+        {
+            page.add(it.next());
+        }
+        return page;
+    }
+}
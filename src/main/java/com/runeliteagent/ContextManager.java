@@ -0,0 +1,452 @@
+package com.runeliteagent;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the conversation sent to Claude within a token budget.
+ * <p>
+ * Token counts are approximated (about four characters per token) and cached per message.
+ * Before each request, once tool_result payloads exceed the tool result budget, the oldest are
+ * replaced by short stubs down to half the budget, and when the whole window nears the ceiling
+ * the oldest turns are folded into a compact summary carried on the first remaining user
+ * message. The current turn is never touched.
+ * <p>
+ * Messages are replaced rather than modified, so callers holding references to earlier
+ * message objects never see them change.
+ */
+@Slf4j
+public class ContextManager
+{
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+    private static final double COMPACT_THRESHOLD = 0.8;
+    private static final double COMPACT_TARGET = 0.5;
+    private static final double STUB_TARGET = 0.5;
+    private static final int SUMMARY_MAX_CHARS = 4000;
+    private static final int SUMMARY_QUESTION_CHARS = 200;
+    private static final int SUMMARY_ANSWER_CHARS = 300;
+    private static final String SUMMARY_PREFIX = "[Summary of earlier conversation]\n";
+    private static final String STUB_PREFIX = "[Earlier tool result omitted to save context";
+
+    private final ClaudeAgentConfig config;
+    private final Map<JsonElement, Integer> tokenCounts = new IdentityHashMap<>();
+
+    public ContextManager(ClaudeAgentConfig config)
+    {
+        this.config = config;
+    }
+
+    /**
+     * Stub old tool results and summarize old turns in place so the history fits the configured budgets.
+     */
+    public void compact(JsonArray history)
+    {
+        int currentTurn = lastTurnStart(history);
+        if (currentTurn <= 0)
+        {
+            return;
+        }
+
+        stubToolResults(history, currentTurn, config.toolResultTokenBudget());
+
+        int ceiling = config.contextTokenCeiling();
+        int total = estimateTokens(history);
+        if (total > ceiling * COMPACT_THRESHOLD)
+        {
+            summarizeOldTurns(history, (int) (ceiling * COMPACT_TARGET));
+        }
+
+        // Forget counts for messages that are no longer in the window
+        tokenCounts.keySet().retainAll(identitySet(history));
+    }
+
+    /**
+     * Approximate token count of the whole history.
+     */
+    public int estimateTokens(JsonArray history)
+    {
+        int total = 0;
+        for (JsonElement message : history)
+        {
+            total += estimateTokens(message);
+        }
+        return total;
+    }
+
+    private int estimateTokens(JsonElement message)
+    {
+        Integer cached = tokenCounts.get(message);
+        if (cached == null)
+        {
+            cached = MESSAGE_OVERHEAD_TOKENS + countChars(message) / CHARS_PER_TOKEN;
+            tokenCounts.put(message, cached);
+        }
+        return cached;
+    }
+
+    private static int countChars(JsonElement element)
+    {
+        if (element.isJsonPrimitive())
+        {
+            return element.getAsString().length();
+        }
+        int chars = 0;
+        if (element.isJsonArray())
+        {
+            for (JsonElement child : element.getAsJsonArray())
+            {
+                chars += countChars(child);
+            }
+        }
+        else if (element.isJsonObject())
+        {
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet())
+            {
+                chars += entry.getKey().length() + countChars(entry.getValue());
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * Once the verbatim tool results exceed the budget, stub the oldest ones until they are down
+     * to {@link #STUB_TARGET} of it. Stubbing in batches rather than one result per turn keeps
+     * the start of the conversation unchanged between batches, so cached prompt prefixes stay valid.
+     */
+    private void stubToolResults(JsonArray history, int currentTurn, int budget)
+    {
+        int used = 0;
+        for (JsonElement element : history)
+        {
+            JsonObject message = element.getAsJsonObject();
+            if (isToolResultMessage(message))
+            {
+                for (JsonElement block : message.getAsJsonArray("content"))
+                {
+                    used += verbatimTokens(block.getAsJsonObject());
+                }
+            }
+        }
+        if (used <= budget)
+        {
+            return;
+        }
+
+        int target = (int) (budget * STUB_TARGET);
+        for (int i = 0; i < currentTurn && used > target; i++)
+        {
+            JsonObject message = history.get(i).getAsJsonObject();
+            if (!isToolResultMessage(message))
+            {
+                continue;
+            }
+
+            JsonArray content = message.getAsJsonArray("content");
+            JsonArray stubbed = null;
+            for (int j = 0; j < content.size() && used > target; j++)
+            {
+                JsonObject block = content.get(j).getAsJsonObject();
+                int tokens = verbatimTokens(block);
+                if (tokens == 0)
+                {
+                    continue;
+                }
+                if (stubbed == null)
+                {
+                    stubbed = content.deepCopy();
+                }
+                int chars = countChars(block.get("content"));
+                stubbed.get(j).getAsJsonObject().addProperty("content", STUB_PREFIX + " (" + chars + " chars)]");
+                used -= tokens;
+            }
+
+            if (stubbed != null)
+            {
+                history.set(i, withContent(message, stubbed));
+            }
+        }
+    }
+
+    /**
+     * Approximate tokens of a tool result block that has not been stubbed yet.
+     */
+    private static int verbatimTokens(JsonObject block)
+    {
+        return block.has("content") && !isStub(block) ? countChars(block.get("content")) / CHARS_PER_TOKEN : 0;
+    }
+
+    /**
+     * Remove whole turns from the front of the history until it fits the target, recording
+     * each removed turn as a line in the summary.
+     */
+    private void summarizeOldTurns(JsonArray history, int target)
+    {
+        if (nextTurnStart(history, 1) < 0)
+        {
+            // Only the current turn is left
+            return;
+        }
+
+        List<String> summaryLines = new ArrayList<>();
+        String existing = takeSummary(history);
+        if (existing != null)
+        {
+            summaryLines.add(existing);
+        }
+
+        int total = estimateTokens(history);
+        int dropped = 0;
+        while (total > target)
+        {
+            int nextTurn = nextTurnStart(history, 1);
+            if (nextTurn < 0)
+            {
+                break;
+            }
+
+            summaryLines.add(summarizeTurn(history, nextTurn));
+            for (int i = 0; i < nextTurn; i++)
+            {
+                total -= estimateTokens(history.get(0));
+                history.remove(0);
+            }
+            dropped++;
+        }
+
+        String summary = String.join("\n", summaryLines);
+        if (summary.length() > SUMMARY_MAX_CHARS)
+        {
+            summary = summary.substring(summary.length() - SUMMARY_MAX_CHARS);
+            summary = summary.substring(summary.indexOf('\n') + 1);
+        }
+
+        JsonObject first = history.get(0).getAsJsonObject();
+        JsonArray content = first.getAsJsonArray("content").deepCopy();
+        JsonObject summaryBlock = new JsonObject();
+        summaryBlock.addProperty("type", "text");
+        summaryBlock.addProperty("text", SUMMARY_PREFIX + summary);
+        JsonArray withSummary = new JsonArray();
+        withSummary.add(summaryBlock);
+        withSummary.addAll(content);
+        history.set(0, withContent(first, withSummary));
+
+        log.debug("Compacted {} earlier turns into summary, window now ~{} tokens", dropped, estimateTokens(history));
+    }
+
+    /**
+     * Detach the summary block from the first message, if there is one, and return its text.
+     */
+    private String takeSummary(JsonArray history)
+    {
+        JsonObject first = history.get(0).getAsJsonObject();
+        JsonArray content = first.getAsJsonArray("content");
+        if (content.size() == 0)
+        {
+            return null;
+        }
+        JsonObject block = content.get(0).getAsJsonObject();
+        if (!isSummary(block))
+        {
+            return null;
+        }
+
+        JsonArray rest = content.deepCopy();
+        rest.remove(0);
+        history.set(0, withContent(first, rest));
+        return block.get("text").getAsString().substring(SUMMARY_PREFIX.length());
+    }
+
+    /**
+     * Remove the most recent turn. If compaction carried the summary on the message that started
+     * it, the summary is kept as a message of its own, which {@link #addTurnStart} joins to the
+     * next question.
+     */
+    static void removeLastTurn(JsonArray history)
+    {
+        int turnStart = lastTurnStart(history);
+        if (turnStart < 0)
+        {
+            return;
+        }
+        JsonObject start = history.get(turnStart).getAsJsonObject();
+        while (history.size() > turnStart)
+        {
+            history.remove(history.size() - 1);
+        }
+
+        JsonArray content = start.getAsJsonArray("content");
+        if (content.size() > 0 && isSummary(content.get(0).getAsJsonObject()))
+        {
+            JsonArray summaryOnly = new JsonArray();
+            summaryOnly.add(content.get(0));
+            history.add(withContent(start, summaryOnly));
+        }
+    }
+
+    /**
+     * Add the user message that starts a turn, joining it to a summary left behind by
+     * {@link #removeLastTurn} so that user and assistant messages keep alternating.
+     */
+    static void addTurnStart(JsonArray history, JsonObject message)
+    {
+        int last = history.size() - 1;
+        if (last >= 0 && isSummaryOnly(history.get(last).getAsJsonObject()))
+        {
+            JsonObject summary = history.get(last).getAsJsonObject();
+            JsonArray content = summary.getAsJsonArray("content").deepCopy();
+            content.addAll(message.getAsJsonArray("content"));
+            history.set(last, withContent(summary, content));
+            return;
+        }
+        history.add(message);
+    }
+
+    private static boolean isSummaryOnly(JsonObject message)
+    {
+        if (!"user".equals(message.get("role").getAsString()) || !message.get("content").isJsonArray())
+        {
+            return false;
+        }
+        JsonArray content = message.getAsJsonArray("content");
+        return content.size() == 1 && isSummary(content.get(0).getAsJsonObject());
+    }
+
+    private static boolean isSummary(JsonObject block)
+    {
+        return "text".equals(block.get("type").getAsString()) && block.get("text").getAsString().startsWith(SUMMARY_PREFIX);
+    }
+
+    private static String summarizeTurn(JsonArray history, int end)
+    {
+        String question = firstText(history.get(0).getAsJsonObject());
+        String answer = "";
+        List<String> tools = new ArrayList<>();
+        for (int i = 0; i < end; i++)
+        {
+            JsonObject message = history.get(i).getAsJsonObject();
+            if (!"assistant".equals(message.get("role").getAsString()))
+            {
+                continue;
+            }
+            for (JsonElement element : message.getAsJsonArray("content"))
+            {
+                JsonObject block = element.getAsJsonObject();
+                String type = block.get("type").getAsString();
+                if ("tool_use".equals(type))
+                {
+                    tools.add(block.get("name").getAsString());
+                }
+                else if ("text".equals(type))
+                {
+                    answer = block.get("text").getAsString();
+                }
+            }
+        }
+
+        StringBuilder line = new StringBuilder();
+        line.append("- User: ").append(abbreviate(question, SUMMARY_QUESTION_CHARS));
+        if (!tools.isEmpty())
+        {
+            line.append(" | Tools: ").append(String.join(", ", tools));
+        }
+        line.append(" | Assistant: ").append(abbreviate(answer, SUMMARY_ANSWER_CHARS));
+        return line.toString();
+    }
+
+    private static String firstText(JsonObject message)
+    {
+        for (JsonElement element : message.getAsJsonArray("content"))
+        {
+            JsonObject block = element.getAsJsonObject();
+            if ("text".equals(block.get("type").getAsString()))
+            {
+                return block.get("text").getAsString();
+            }
+        }
+        return "";
+    }
+
+    private static String abbreviate(String text, int max)
+    {
+        String flat = text.replace('\n', ' ').trim();
+        return flat.length() <= max ? flat : flat.substring(0, max) + "...";
+    }
+
+    /**
+     * Index of the user message that started the most recent turn, or -1 if there is none.
+     */
+    static int lastTurnStart(JsonArray history)
+    {
+        for (int i = history.size() - 1; i >= 0; i--)
+        {
+            if (isTurnStart(history.get(i).getAsJsonObject()))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int nextTurnStart(JsonArray history, int from)
+    {
+        for (int i = from; i < history.size(); i++)
+        {
+            if (isTurnStart(history.get(i).getAsJsonObject()))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A turn starts at a user message typed by the player, as opposed to one carrying tool results.
+     */
+    private static boolean isTurnStart(JsonObject message)
+    {
+        return "user".equals(message.get("role").getAsString()) && !isToolResultMessage(message);
+    }
+
+    private static boolean isToolResultMessage(JsonObject message)
+    {
+        if (!"user".equals(message.get("role").getAsString()) || !message.get("content").isJsonArray())
+        {
+            return false;
+        }
+        JsonArray content = message.getAsJsonArray("content");
+        return content.size() > 0 && "tool_result".equals(content.get(0).getAsJsonObject().get("type").getAsString());
+    }
+
+    private static boolean isStub(JsonObject block)
+    {
+        JsonElement content = block.get("content");
+        return content != null && content.isJsonPrimitive() && content.getAsString().startsWith(STUB_PREFIX);
+    }
+
+    private static JsonObject withContent(JsonObject message, JsonArray content)
+    {
+        JsonObject copy = new JsonObject();
+        copy.addProperty("role", message.get("role").getAsString());
+        copy.add("content", content);
+        return copy;
+    }
+
+    private static Set<JsonElement> identitySet(JsonArray history)
+    {
+        Set<JsonElement> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (JsonElement message : history)
+        {
+            set.add(message);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,147 @@
+package com.runeliteagent;
+
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.api.Skill;
+
+/**
+ * Immutable copy of the player state that tools report on, captured on the client thread and
+ * read from any thread. Skill values are stored in arrays indexed by {@link Skill#ordinal()}.
+ */
+public final class GameStateSnapshot
+{
+    public static final GameStateSnapshot LOGGED_OUT = new GameStateSnapshot(null, 0, null, null, null);
+
+    private static final Skill[] SKILLS = Skill.values();
+    private static final int SKILL_NAME_WIDTH = 15;
+
+    private final String playerName;
+    private final int combatLevel;
+    private final int[] realLevels;
+    private final int[] boostedLevels;
+    private final int[] experience;
+    private volatile String rendered;
+
+    private GameStateSnapshot(String playerName, int combatLevel, int[] realLevels, int[] boostedLevels, int[] experience)
+    {
+        this.playerName = playerName;
+        this.combatLevel = combatLevel;
+        this.realLevels = realLevels;
+        this.boostedLevels = boostedLevels;
+        this.experience = experience;
+    }
+
+    /**
+     * Read the current state from the client. Must be called on the client thread.
+     *
+     * @return the snapshot, or {@link #LOGGED_OUT} if there is no local player yet
+     */
+    public static GameStateSnapshot capture(Client client)
+    {
+        Player player = client.getLocalPlayer();
+        if (player == null)
+        {
+            return LOGGED_OUT;
+        }
+
+        int[] real = new int[SKILLS.length];
+        int[] boosted = new int[SKILLS.length];
+        int[] xp = new int[SKILLS.length];
+        for (Skill skill : SKILLS)
+        {
+            if (skill == Skill.OVERALL)
+            {
+                continue;
+            }
+            real[skill.ordinal()] = client.getRealSkillLevel(skill);
+            boosted[skill.ordinal()] = client.getBoostedSkillLevel(skill);
+            xp[skill.ordinal()] = client.getSkillExperience(skill);
+        }
+        return new GameStateSnapshot(player.getName(), player.getCombatLevel(), real, boosted, xp);
+    }
+
+    public boolean isLoggedIn()
+    {
+        return realLevels != null;
+    }
+
+    public String getPlayerName()
+    {
+        return playerName;
+    }
+
+    public int getCombatLevel()
+    {
+        return combatLevel;
+    }
+
+    public int getRealLevel(Skill skill)
+    {
+        return isLoggedIn() ? realLevels[skill.ordinal()] : 0;
+    }
+
+    public int getBoostedLevel(Skill skill)
+    {
+        return isLoggedIn() ? boostedLevels[skill.ordinal()] : 0;
+    }
+
+    public int getExperience(Skill skill)
+    {
+        return isLoggedIn() ? experience[skill.ordinal()] : 0;
+    }
+
+    /**
+     * The get_player_stats text for this snapshot, rendered once and reused until the next snapshot.
+     */
+    public String render()
+    {
+        String text = rendered;
+        if (text == null)
+        {
+            text = isLoggedIn() ? renderStats() : "Not logged in - no player stats available.";
+            rendered = text;
+        }
+        return text;
+    }
+
+    private String renderStats()
+    {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("Player: ").append(playerName != null ? playerName : "Unknown").append('\n');
+        sb.append("Combat Level: ").append(combatLevel).append("\n\n");
+        sb.append("Skills:\n");
+        for (Skill skill : SKILLS)
+        {
+            if (skill == Skill.OVERALL)
+            {
+                continue;
+            }
+            int i = skill.ordinal();
+            String name = skill.getName();
+            sb.append("  ").append(name);
+            for (int pad = name.length(); pad < SKILL_NAME_WIDTH; pad++)
+            {
+                sb.append(' ');
+            }
+            sb.append(" Level: ").append(boostedLevels[i]).append('/').append(realLevels[i]);
+            sb.append("  XP: ");
+            appendGrouped(sb, experience[i]);
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void appendGrouped(StringBuilder sb, int value)
+    {
+        String digits = Integer.toString(value);
+        int lead = digits.length() % 3;
+        for (int i = 0; i < digits.length(); i++)
+        {
+            if (i > 0 && (i - lead) % 3 == 0)
+            {
+                sb.append(',');
+            }
+            sb.append(digits.charAt(i));
+        }
+    }
+}
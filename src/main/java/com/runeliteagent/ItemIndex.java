@@ -0,0 +1,327 @@
+package com.runeliteagent;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable name/id index over the OSRS Wiki prices item mapping.
+ * Built once from the mapping document and swapped out wholesale on refresh, so lookups
+ * never lock and never touch the network.
+ */
+public final class ItemIndex
+{
+    private static final int[] NO_POSTINGS = new int[0];
+
+    // Entries sorted by lower-case name; positions into these arrays are "slots"
+    private final int[] ids;
+    private final String[] names;
+    private final String[] lowerNames;
+    private final String[] nameById;
+
+    // Open-addressed trigram -> slot postings table
+    private final long[] trigramKeys;
+    private final int[][] trigramPostings;
+    private final int trigramMask;
+
+    private ItemIndex(int[] ids, String[] names)
+    {
+        int count = ids.length;
+        Integer[] order = new Integer[count];
+        String[] lower = new String[count];
+        for (int i = 0; i < count; i++)
+        {
+            order[i] = i;
+            lower[i] = names[i].toLowerCase(Locale.ROOT);
+        }
+        Arrays.sort(order, (a, b) -> lower[a].compareTo(lower[b]));
+
+        this.ids = new int[count];
+        this.names = new String[count];
+        this.lowerNames = new String[count];
+        int maxId = 0;
+        for (int slot = 0; slot < count; slot++)
+        {
+            int source = order[slot];
+            this.ids[slot] = ids[source];
+            this.names[slot] = names[source];
+            this.lowerNames[slot] = lower[source];
+            maxId = Math.max(maxId, ids[source]);
+        }
+
+        this.nameById = new String[maxId + 1];
+        for (int slot = count - 1; slot >= 0; slot--)
+        {
+            // Iterating backwards leaves the first slot's name for duplicate ids
+            nameById[this.ids[slot]] = this.names[slot];
+        }
+
+        Map<Long, List<Integer>> postings = new HashMap<>();
+        for (int slot = 0; slot < count; slot++)
+        {
+            String name = lowerNames[slot];
+            for (int i = 0; i + 3 <= name.length(); i++)
+            {
+                List<Integer> list = postings.computeIfAbsent(trigram(name, i), k -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1) != slot)
+                {
+                    list.add(slot);
+                }
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(16, postings.size() * 2)) << 1;
+        this.trigramMask = capacity - 1;
+        this.trigramKeys = new long[capacity];
+        this.trigramPostings = new int[capacity][];
+        for (Map.Entry<Long, List<Integer>> entry : postings.entrySet())
+        {
+            long key = entry.getKey();
+            int bucket = bucket(key);
+            while (trigramPostings[bucket] != null)
+            {
+                bucket = (bucket + 1) & trigramMask;
+            }
+            trigramKeys[bucket] = key;
+            trigramPostings[bucket] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Parse the {@code /api/v1/osrs/mapping} document, keeping only item ids and names.
+     */
+    public static ItemIndex parse(JsonReader reader) throws IOException
+    {
+        int[] ids = new int[4096];
+        List<String> names = new ArrayList<>(4096);
+
+        reader.beginArray();
+        while (reader.hasNext())
+        {
+            int id = -1;
+            String name = null;
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                String field = reader.nextName();
+                if ("id".equals(field) && reader.peek() == JsonToken.NUMBER)
+                {
+                    id = reader.nextInt();
+                }
+                else if ("name".equals(field) && reader.peek() == JsonToken.STRING)
+                {
+                    name = reader.nextString();
+                }
+                else
+                {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (id >= 0 && name != null)
+            {
+                if (names.size() == ids.length)
+                {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+                ids[names.size()] = id;
+                names.add(name);
+            }
+        }
+        reader.endArray();
+
+        return new ItemIndex(Arrays.copyOf(ids, names.size()), names.toArray(new String[0]));
+    }
+
+    public int size()
+    {
+        return ids.length;
+    }
+
+    /**
+     * @return the item name for an id, or null if the id is not in the mapping
+     */
+    public String getName(int itemId)
+    {
+        return itemId >= 0 && itemId < nameById.length ? nameById[itemId] : null;
+    }
+
+    /**
+     * Resolve an item name to its id. Tries an exact (case-insensitive) match, then the
+     * alphabetically first name starting with the query, then the shortest name containing it.
+     * The query is trimmed and lower-cased character by character, so a lookup allocates nothing.
+     *
+     * @return the item id, or -1 if nothing matches
+     */
+    public int find(String query)
+    {
+        int start = 0;
+        int end = query.length();
+        while (start < end && query.charAt(start) <= ' ')
+        {
+            start++;
+        }
+        while (end > start && query.charAt(end - 1) <= ' ')
+        {
+            end--;
+        }
+        if (start == end)
+        {
+            return -1;
+        }
+
+        // The first name not sorting before the query is an exact match if there is one,
+        // otherwise the alphabetically first name starting with it
+        int low = 0;
+        int high = lowerNames.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (compare(lowerNames[mid], query, start, end) < 0)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        if (low < lowerNames.length && regionMatches(lowerNames[low], 0, query, start, end))
+        {
+            return ids[low];
+        }
+
+        int slot = end - start < 3 ? scanContaining(query, start, end) : trigramContaining(query, start, end);
+        return slot >= 0 ? ids[slot] : -1;
+    }
+
+    private int trigramContaining(String query, int start, int end)
+    {
+        // Verify candidates from the rarest trigram of the query
+        int[] rarest = null;
+        for (int i = start; i + 3 <= end; i++)
+        {
+            int[] postings = postings(lowerTrigram(query, i));
+            if (postings.length == 0)
+            {
+                return -1;
+            }
+            if (rarest == null || postings.length < rarest.length)
+            {
+                rarest = postings;
+            }
+        }
+
+        int best = -1;
+        for (int slot : rarest)
+        {
+            if ((best < 0 || lowerNames[slot].length() < lowerNames[best].length())
+                && contains(lowerNames[slot], query, start, end))
+            {
+                best = slot;
+            }
+        }
+        return best;
+    }
+
+    private int scanContaining(String query, int start, int end)
+    {
+        int best = -1;
+        for (int slot = 0; slot < lowerNames.length; slot++)
+        {
+            if ((best < 0 || lowerNames[slot].length() < lowerNames[best].length())
+                && contains(lowerNames[slot], query, start, end))
+            {
+                best = slot;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Compare a lower-case name with {@code query[start, end)} lower-cased, like {@link String#compareTo}.
+     */
+    private static int compare(String name, String query, int start, int end)
+    {
+        int length = Math.min(name.length(), end - start);
+        for (int i = 0; i < length; i++)
+        {
+            char q = Character.toLowerCase(query.charAt(start + i));
+            if (name.charAt(i) != q)
+            {
+                return name.charAt(i) - q;
+            }
+        }
+        return name.length() - (end - start);
+    }
+
+    /**
+     * Whether a lower-case name has {@code query[start, end)}, lower-cased, at the given offset.
+     */
+    private static boolean regionMatches(String name, int offset, String query, int start, int end)
+    {
+        if (offset + end - start > name.length())
+        {
+            return false;
+        }
+        for (int i = start; i < end; i++)
+        {
+            if (name.charAt(offset + i - start) != Character.toLowerCase(query.charAt(i)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(String name, String query, int start, int end)
+    {
+        for (int offset = 0; offset + end - start <= name.length(); offset++)
+        {
+            if (regionMatches(name, offset, query, start, end))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] postings(long key)
+    {
+        int bucket = bucket(key);
+        while (trigramPostings[bucket] != null)
+        {
+            if (trigramKeys[bucket] == key)
+            {
+                return trigramPostings[bucket];
+            }
+            bucket = (bucket + 1) & trigramMask;
+        }
+        return NO_POSTINGS;
+    }
+
+    private int bucket(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & trigramMask;
+    }
+
+    private static long trigram(String s, int offset)
+    {
+        return ((long) s.charAt(offset) << 32) | ((long) s.charAt(offset + 1) << 16) | s.charAt(offset + 2);
+    }
+
+    private static long lowerTrigram(String s, int offset)
+    {
+        return ((long) Character.toLowerCase(s.charAt(offset)) << 32)
+            | ((long) Character.toLowerCase(s.charAt(offset + 1)) << 16)
+            | Character.toLowerCase(s.charAt(offset + 2));
+    }
+}
@@ -0,0 +1,464 @@
+package com.runeliteagent;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+
+/**
+ * Incremental markdown to styled-text converter for one assistant message. Text is fed chunk by
+ * chunk off the EDT; each complete line is parsed exactly once, with block state (code fences,
+ * tables) carried across chunks. The trailing partial line is rendered provisionally and
+ * replaced by the next delta, so the work per chunk is bounded by the chunk plus the line in
+ * progress rather than by the whole message.
+ * <p>
+ * Covers the subset Claude uses in chat: headings, bullet and numbered lists, block quotes,
+ * fenced code, tables, rules, and inline bold, italic and code spans. Numbered items count up
+ * from the first number of their list, as markdown does, so "1." on every line still reads 1, 2, 3.
+ */
+public class MarkdownRenderer
+{
+    private static final String BULLET = "• ";
+    private static final String CELL_SEPARATOR = "  │  ";
+    private static final String RULE = "────────────────";
+
+    private final AttributeSet plain;
+    private final AttributeSet quote;
+    private final AttributeSet code;
+    private final AttributeSet muted;
+    private final AttributeSet[] headings;
+
+    private final StringBuilder partial = new StringBuilder();
+    private boolean inCodeBlock;
+    private boolean inTable;
+    // Last number shown in each open numbered list, by indent
+    private final TreeMap<Integer, Integer> listNumbers = new TreeMap<>();
+
+    public MarkdownRenderer(Font font, Color textColor, Color mutedColor, Color codeBackground)
+    {
+        SimpleAttributeSet base = new SimpleAttributeSet();
+        StyleConstants.setFontFamily(base, font.getFamily());
+        StyleConstants.setFontSize(base, font.getSize());
+        StyleConstants.setForeground(base, textColor);
+        plain = base;
+
+        SimpleAttributeSet quoteStyle = new SimpleAttributeSet(base);
+        StyleConstants.setItalic(quoteStyle, true);
+        StyleConstants.setForeground(quoteStyle, mutedColor);
+        quote = quoteStyle;
+
+        SimpleAttributeSet mutedStyle = new SimpleAttributeSet(base);
+        StyleConstants.setForeground(mutedStyle, mutedColor);
+        muted = mutedStyle;
+
+        SimpleAttributeSet codeStyle = new SimpleAttributeSet(base);
+        StyleConstants.setFontFamily(codeStyle, Font.MONOSPACED);
+        StyleConstants.setBackground(codeStyle, codeBackground);
+        code = codeStyle;
+
+        headings = new AttributeSet[3];
+        int[] sizes = {font.getSize() + 4, font.getSize() + 2, font.getSize() + 1};
+        for (int i = 0; i < headings.length; i++)
+        {
+            SimpleAttributeSet heading = new SimpleAttributeSet(base);
+            StyleConstants.setBold(heading, true);
+            StyleConstants.setFontSize(heading, sizes[i]);
+            headings[i] = heading;
+        }
+    }
+
+    /**
+     * Parse a newly arrived chunk.
+     *
+     * @return styled runs for the lines completed by this chunk, plus a provisional rendering of
+     * the line still in progress
+     */
+    public synchronized Delta feed(String chunk)
+    {
+        List<Run> committed = new ArrayList<>();
+        int start = 0;
+        int newline;
+        while ((newline = chunk.indexOf('\n', start)) >= 0)
+        {
+            partial.append(chunk, start, newline);
+            renderLine(partial.toString(), committed, true);
+            partial.setLength(0);
+            start = newline + 1;
+        }
+        partial.append(chunk, start, chunk.length());
+
+        List<Run> provisional = new ArrayList<>(2);
+        if (partial.length() > 0)
+        {
+            renderLine(partial.toString(), provisional, false);
+        }
+        return new Delta(chunk, committed, provisional);
+    }
+
+    /**
+     * Render one line. Block state only advances when the line is complete; a provisional render
+     * of a partial line reads the state but leaves it alone.
+     */
+    private void renderLine(String line, List<Run> out, boolean complete)
+    {
+        String trimmed = line.trim();
+
+        if (trimmed.startsWith("```"))
+        {
+            if (complete)
+            {
+                inCodeBlock = !inCodeBlock;
+                inTable = false;
+            }
+            return;
+        }
+        if (inCodeBlock)
+        {
+            out.add(new Run(line, code));
+            endLine(out, complete);
+            return;
+        }
+
+        if (trimmed.startsWith("|"))
+        {
+            if (!isTableSeparator(trimmed))
+            {
+                renderTableRow(trimmed, out, !inTable);
+                endLine(out, complete);
+            }
+            if (complete)
+            {
+                inTable = true;
+            }
+            return;
+        }
+        if (complete)
+        {
+            inTable = false;
+        }
+
+        int level = headingLevel(trimmed);
+        if (level > 0)
+        {
+            AttributeSet style = headings[Math.min(level, headings.length) - 1];
+            renderInline(trimmed.substring(level).trim(), style, out);
+        }
+        else if (isRule(trimmed))
+        {
+            out.add(new Run(RULE, muted));
+        }
+        else if (trimmed.startsWith(">"))
+        {
+            out.add(new Run("│ ", muted));
+            renderInline(trimmed.substring(1).trim(), quote, out);
+        }
+        else if (isBullet(trimmed))
+        {
+            out.add(new Run(indentOf(line) + BULLET, plain));
+            renderInline(trimmed.substring(2), plain, out);
+        }
+        else if (numberLength(trimmed) > 0)
+        {
+            int digits = numberLength(trimmed);
+            String indent = indentOf(line);
+            int number = listNumber(indent.length(), Integer.parseInt(trimmed.substring(0, digits)), complete);
+            out.add(new Run(indent + number + ". ", plain));
+            renderInline(trimmed.substring(digits + 2), plain, out);
+        }
+        else
+        {
+            renderInline(line, plain, out);
+        }
+        if (complete && !trimmed.isEmpty() && numberLength(trimmed) == 0 && indentOf(line).isEmpty())
+        {
+            // Unindented text other than a numbered item ends every numbered list
+            listNumbers.clear();
+        }
+        endLine(out, complete);
+    }
+
+    /**
+     * The number to show for a numbered item: one more than the previous item at the same indent,
+     * or the written number for the first item of a list. Deeper lists end when a shallower item
+     * appears. Only a complete line advances the count.
+     */
+    private int listNumber(int indent, int written, boolean complete)
+    {
+        Integer previous = listNumbers.get(indent);
+        int number = previous != null ? previous + 1 : written;
+        if (complete)
+        {
+            listNumbers.tailMap(indent, false).clear();
+            listNumbers.put(indent, number);
+        }
+        return number;
+    }
+
+    private void endLine(List<Run> out, boolean complete)
+    {
+        if (complete)
+        {
+            out.add(new Run("\n", plain));
+        }
+    }
+
+    private void renderTableRow(String row, List<Run> out, boolean header)
+    {
+        String inner = row.substring(1);
+        if (inner.endsWith("|"))
+        {
+            inner = inner.substring(0, inner.length() - 1);
+        }
+        String[] cells = inner.split("\\|", -1);
+        AttributeSet style = header ? withFlags(plain, true, false) : plain;
+        for (int i = 0; i < cells.length; i++)
+        {
+            if (i > 0)
+            {
+                out.add(new Run(CELL_SEPARATOR, muted));
+            }
+            renderInline(cells[i].trim(), style, out);
+        }
+    }
+
+    /**
+     * Inline spans: `code`, **bold** / __bold__ and *italic*. A marker without a closing partner
+     * on the same line is kept as literal text.
+     */
+    private void renderInline(String text, AttributeSet base, List<Run> out)
+    {
+        boolean bold = false;
+        boolean italic = false;
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < text.length())
+        {
+            char c = text.charAt(i);
+            if (c == '`')
+            {
+                int close = text.indexOf('`', i + 1);
+                if (close > i + 1)
+                {
+                    flush(run, base, bold, italic, out);
+                    out.add(new Run(text.substring(i + 1, close), code));
+                    i = close + 1;
+                    continue;
+                }
+            }
+            else if ((c == '*' || c == '_') && i + 1 < text.length() && text.charAt(i + 1) == c)
+            {
+                String marker = text.substring(i, i + 2);
+                if (bold || opensSpan(text, i + 2) && text.indexOf(marker, i + 2) > i + 2)
+                {
+                    flush(run, base, bold, italic, out);
+                    bold = !bold;
+                    i += 2;
+                    continue;
+                }
+            }
+            else if (c == '*')
+            {
+                if (italic || opensSpan(text, i + 1) && text.indexOf('*', i + 1) > i + 1)
+                {
+                    flush(run, base, bold, italic, out);
+                    italic = !italic;
+                    i++;
+                    continue;
+                }
+            }
+            run.append(c);
+            i++;
+        }
+        flush(run, base, bold, italic, out);
+    }
+
+    /**
+     * An opening marker must be followed by text, so "2 * 3 * 4" stays literal.
+     */
+    private static boolean opensSpan(String text, int contentStart)
+    {
+        return contentStart < text.length() && !Character.isWhitespace(text.charAt(contentStart));
+    }
+
+    private void flush(StringBuilder run, AttributeSet base, boolean bold, boolean italic, List<Run> out)
+    {
+        if (run.length() > 0)
+        {
+            out.add(new Run(run.toString(), bold || italic ? withFlags(base, bold, italic) : base));
+            run.setLength(0);
+        }
+    }
+
+    private static AttributeSet withFlags(AttributeSet base, boolean bold, boolean italic)
+    {
+        SimpleAttributeSet style = new SimpleAttributeSet(base);
+        if (bold)
+        {
+            StyleConstants.setBold(style, true);
+        }
+        if (italic)
+        {
+            StyleConstants.setItalic(style, true);
+        }
+        return style;
+    }
+
+    private static int headingLevel(String trimmed)
+    {
+        int level = 0;
+        while (level < trimmed.length() && trimmed.charAt(level) == '#')
+        {
+            level++;
+        }
+        return level > 0 && level <= 6 && level < trimmed.length() && trimmed.charAt(level) == ' ' ? level : 0;
+    }
+
+    private static boolean isRule(String trimmed)
+    {
+        if (trimmed.length() < 3)
+        {
+            return false;
+        }
+        char c = trimmed.charAt(0);
+        if (c != '-' && c != '*' && c != '_')
+        {
+            return false;
+        }
+        for (int i = 1; i < trimmed.length(); i++)
+        {
+            if (trimmed.charAt(i) != c)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBullet(String trimmed)
+    {
+        return trimmed.length() > 1
+            && (trimmed.charAt(0) == '-' || trimmed.charAt(0) == '*' || trimmed.charAt(0) == '+')
+            && trimmed.charAt(1) == ' ';
+    }
+
+    /**
+     * @return the number of digits of a "12. item" line, or 0 if the line is not a numbered item
+     */
+    private static int numberLength(String trimmed)
+    {
+        int digits = 0;
+        while (digits < trimmed.length() && digits < 9 && Character.isDigit(trimmed.charAt(digits)))
+        {
+            digits++;
+        }
+        return digits > 0 && trimmed.startsWith(". ", digits) ? digits : 0;
+    }
+
+    private static boolean isTableSeparator(String trimmed)
+    {
+        for (int i = 0; i < trimmed.length(); i++)
+        {
+            char c = trimmed.charAt(i);
+            if (c != '|' && c != '-' && c != ':' && c != ' ')
+            {
+                return false;
+            }
+        }
+        return trimmed.indexOf('-') >= 0;
+    }
+
+    private static String indentOf(String line)
+    {
+        int indent = 0;
+        while (indent < line.length() && line.charAt(indent) == ' ')
+        {
+            indent++;
+        }
+        return line.substring(0, indent);
+    }
+
+    /**
+     * A piece of text with its character attributes.
+     */
+    public static final class Run
+    {
+        private final String text;
+        private final AttributeSet style;
+
+        Run(String text, AttributeSet style)
+        {
+            this.text = text;
+            this.style = style;
+        }
+
+        public String getText()
+        {
+            return text;
+        }
+
+        public AttributeSet getStyle()
+        {
+            return style;
+        }
+    }
+
+    /**
+     * Document change for one or more chunks: committed runs are appended for good, and the
+     * provisional runs replace whatever provisional text the previous delta left behind.
+     */
+    public static final class Delta
+    {
+        private final String raw;
+        private final List<Run> committed;
+        private final List<Run> provisional;
+
+        Delta(String raw, List<Run> committed, List<Run> provisional)
+        {
+            this.raw = raw;
+            this.committed = committed;
+            this.provisional = provisional;
+        }
+
+        /**
+         * @return the markdown source this delta was rendered from
+         */
+        public String getRaw()
+        {
+            return raw;
+        }
+
+        public List<Run> getCommitted()
+        {
+            return Collections.unmodifiableList(committed);
+        }
+
+        public List<Run> getProvisional()
+        {
+            return Collections.unmodifiableList(provisional);
+        }
+
+        /**
+         * Combine consecutive deltas, oldest first, so a frame applies a single change.
+         */
+        public static Delta merge(List<Delta> deltas)
+        {
+            if (deltas.size() == 1)
+            {
+                return deltas.get(0);
+            }
+            StringBuilder raw = new StringBuilder();
+            List<Run> runs = new ArrayList<>();
+            for (Delta delta : deltas)
+            {
+                raw.append(delta.raw);
+                runs.addAll(delta.committed);
+            }
+            return new Delta(raw.toString(), runs, deltas.get(deltas.size() - 1).provisional);
+        }
+    }
+}
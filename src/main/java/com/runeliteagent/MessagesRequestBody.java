@@ -0,0 +1,162 @@
+package com.runeliteagent;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * A Messages API request body assembled from pre-serialized JSON segments and written straight
+ * to the sink, without building the whole payload as a String first.
+ * <p>
+ * The segments come from a {@link Segments} cache that lives as long as the API client: the
+ * system prompt and tool definitions are encoded once, and each history message is encoded
+ * the first time it is sent and reused on every later iteration. Only newly appended messages
+ * (and the rolling cache breakpoint on the newest one) are encoded per request.
+ */
+class MessagesRequestBody extends RequestBody
+{
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final byte[] SYSTEM_FIELD = utf8(",\"system\":");
+    private static final byte[] TOOLS_FIELD = utf8(",\"tools\":");
+    private static final byte[] MESSAGES_FIELD = utf8(",\"messages\":[");
+    private static final byte[] COMMA = utf8(",");
+    private static final byte[] END = utf8("]}");
+
+    private final List<byte[]> segments;
+    private final long contentLength;
+
+    private MessagesRequestBody(List<byte[]> segments)
+    {
+        this.segments = segments;
+        long length = 0;
+        for (byte[] segment : segments)
+        {
+            length += segment.length;
+        }
+        this.contentLength = length;
+    }
+
+    @Override
+    public MediaType contentType()
+    {
+        return JSON;
+    }
+
+    @Override
+    public long contentLength()
+    {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException
+    {
+        for (byte[] segment : segments)
+        {
+            sink.write(segment);
+        }
+    }
+
+    private static byte[] utf8(String s)
+    {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serialized-bytes cache for the parts of a request that repeat between iterations.
+     * Not thread-safe; requests are built on the agent worker thread.
+     */
+    static class Segments
+    {
+        private final Gson gson;
+        private JsonElement system;
+        private byte[] systemBytes;
+        private JsonArray tools;
+        private byte[] toolBytes;
+        private Map<JsonElement, byte[]> messageBytes = new IdentityHashMap<>();
+
+        Segments(Gson gson)
+        {
+            this.gson = gson;
+        }
+
+        /**
+         * Build a request body.
+         *
+         * @param header    top-level scalar fields (model, max_tokens, stream)
+         * @param system    system prompt blocks; encoded once
+         * @param tools     tool definitions, already marked with their cache breakpoint; encoded
+         *                  once per distinct array instance
+         * @param messages  conversation history; messages are cached by identity
+         * @param lastMessage replacement for the final message (carrying the rolling cache
+         *                  breakpoint); encoded fresh every time
+         */
+        MessagesRequestBody build(JsonObject header, JsonElement system, JsonArray tools,
+                                  JsonArray messages, JsonObject lastMessage)
+        {
+            List<byte[]> segments = new ArrayList<>(messages.size() * 2 + 8);
+
+            String headerJson = gson.toJson(header);
+            segments.add(utf8(headerJson.substring(0, headerJson.lastIndexOf('}'))));
+
+            if (system != this.system)
+            {
+                this.system = system;
+                this.systemBytes = utf8(gson.toJson(system));
+            }
+            segments.add(SYSTEM_FIELD);
+            segments.add(systemBytes);
+
+            if (tools != null && tools.size() > 0)
+            {
+                if (tools != this.tools)
+                {
+                    this.tools = tools;
+                    this.toolBytes = utf8(gson.toJson(tools));
+                }
+                segments.add(TOOLS_FIELD);
+                segments.add(toolBytes);
+            }
+
+            segments.add(MESSAGES_FIELD);
+            Map<JsonElement, byte[]> stillSent = new IdentityHashMap<>();
+            for (int i = 0; i < messages.size(); i++)
+            {
+                if (i > 0)
+                {
+                    segments.add(COMMA);
+                }
+
+                JsonElement message = messages.get(i);
+                if (i == messages.size() - 1 && lastMessage != null)
+                {
+                    segments.add(utf8(gson.toJson(lastMessage)));
+                    continue;
+                }
+
+                byte[] bytes = messageBytes.get(message);
+                if (bytes == null)
+                {
+                    bytes = utf8(gson.toJson(message));
+                }
+                stillSent.put(message, bytes);
+                segments.add(bytes);
+            }
+            segments.add(END);
+
+            // Drop messages that were compacted out of the history
+            messageBytes = stillSent;
+            return new MessagesRequestBody(segments);
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package com.runeliteagent;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -15,27 +28,92 @@ import okhttp3.Response;
 @Slf4j
 public class OsrsWikiClient
 {
-    private static final String WIKI_API = "https://oldschool.runescape.wiki/api.php";
+    static final String WIKI_API = "https://oldschool.runescape.wiki/api.php";
+    static final String PRICES_API = "https://prices.runescape.wiki/api/v1/osrs";
     private static final String USER_AGENT = "RuneLite-Claude-Agent/1.0 (https://github.com/CodyBontecou/runelite-agent)";
+    private static final long ITEM_INDEX_REFRESH_HOURS = 6;
+    private static final int MIN_PRICE_REFRESH_SECONDS = 10;
+    private static final long PRICE_POLL_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final int MAX_PAGE_CHARS = 8000;
+    private static final int MAX_BATCH_CHARS = 16000;
+    private static final int MIN_BATCH_PAGE_CHARS = 1500;
+    // Few enough that every page still gets its minimum share of the batch budget
+    static final int MAX_BATCH_PAGES = MAX_BATCH_CHARS / MIN_BATCH_PAGE_CHARS;
+    private static final int PAGE_FETCH_THREADS = 4;
+    // No exintro: MediaWiki treats a boolean parameter as set whatever its value, even "false"
+    private static final String PAGE_PROPS = "&prop=extracts|revisions&rvprop=ids&explaintext=true";
+    private static final long PREFETCH_TTL_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private static final int PREFETCH_CAPACITY = 16;
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]+>");
+    private static final Pattern HTML_ENTITY = Pattern.compile("&[a-z]+;");
 
+    private final ClaudeAgentConfig config;
     private final OkHttpClient httpClient;
+    private final WikiPageStore pageStore;
+    private final WikiSearchIndex searchIndex;
+    private final ScheduledExecutorService scheduler;
+    private final ScheduledExecutorService indexRefresher;
+    private final ExecutorService pageFetcher;
+    private final PrefetchCache<WikiPage> prefetched = new PrefetchCache<>("claude-agent-wiki-prefetch",
+        PREFETCH_TTL_MILLIS, PREFETCH_CAPACITY, OsrsWikiClient::extractBytes);
+    // Separate threads and locks so a slow mapping download never holds up a price refresh, or the reverse
+    private final Object indexLock = new Object();
+    private final Object priceLock = new Object();
+    private final AtomicBoolean priceRefreshQueued = new AtomicBoolean();
+    private volatile ItemIndex itemIndex;
+    private volatile PriceSnapshot priceSnapshot;
+    private volatile long lastPriceRequestMillis;
 
-    public OsrsWikiClient()
+    public OsrsWikiClient(ClaudeAgentConfig config, OkHttpClient httpClient, WikiPageStore pageStore)
     {
-        this.httpClient = new OkHttpClient.Builder()
-            .followRedirects(true)
-            .build();
+        this.config = config;
+        this.httpClient = httpClient;
+        this.pageStore = pageStore;
+        this.searchIndex = new WikiSearchIndex(config::searchIndexMegabytes);
+        searchIndex.load(pageStore);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "claude-agent-wiki-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        this.indexRefresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "claude-agent-item-index");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger fetchThreadCount = new AtomicInteger();
+        this.pageFetcher = Executors.newFixedThreadPool(PAGE_FETCH_THREADS, r -> {
+            Thread t = new Thread(r, "claude-agent-wiki-fetch-" + fetchThreadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        indexRefresher.scheduleWithFixedDelay(this::refreshItemIndex, 0, ITEM_INDEX_REFRESH_HOURS, TimeUnit.HOURS);
+        schedulePricePoll();
     }
 
     /**
      * Search the OSRS Wiki and return article summaries.
+     * Answered from the local index of pages already read when it has a strong match, otherwise
+     * by the wiki's own search.
      */
     public String search(String query, int limit)
     {
+        List<WikiSearchIndex.Hit> local = searchIndex.search(query, limit);
+        if (!local.isEmpty() && local.get(0).isStrongMatch())
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append("OSRS Wiki search results for '").append(query).append("' (from pages already read):\n\n");
+            for (WikiSearchIndex.Hit hit : local)
+            {
+                appendSearchResult(sb, hit.getTitle(), hit.getSnippet());
+            }
+            return sb.toString();
+        }
+
         try
         {
             String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8.name());
-            String url = WIKI_API + "?action=query&list=search&srsearch=" + encodedQuery
+            String url = getWikiApiUrl() + "?action=query&list=search&srsearch=" + encodedQuery
                 + "&srlimit=" + limit + "&srprop=snippet|titlesnippet&format=json";
 
             Request request = new Request.Builder()
@@ -50,30 +128,24 @@ public class OsrsWikiClient
                 {
                     return "Wiki search failed: HTTP " + response.code();
                 }
-                String body = response.body().string();
-                JsonObject json = JsonParser.parseString(body).getAsJsonObject();
-                JsonObject queryObj = json.getAsJsonObject("query");
-                JsonArray results = queryObj.getAsJsonArray("search");
+                List<WikiSearchResult> results;
+                try (JsonReader reader = new JsonReader(response.body().charStream()))
+                {
+                    results = WikiSearchResult.parse(reader);
+                }
 
-                if (results.size() == 0)
+                if (results.isEmpty())
                 {
                     return "No wiki results found for: " + query;
                 }
 
                 StringBuilder sb = new StringBuilder();
                 sb.append("OSRS Wiki search results for '").append(query).append("':\n\n");
-                for (JsonElement elem : results)
+                for (WikiSearchResult result : results)
                 {
-                    JsonObject result = elem.getAsJsonObject();
-                    String title = result.get("title").getAsString();
-                    String snippet = result.get("snippet").getAsString()
-                        .replaceAll("<[^>]+>", "") // strip HTML tags
-                        .replaceAll("&[a-z]+;", " "); // strip HTML entities
-                    sb.append("## ").append(title).append("\n");
-                    sb.append(snippet).append("\n");
-                    sb.append("URL: https://oldschool.runescape.wiki/w/")
-                        .append(title.replace(" ", "_")).append("\n\n");
+                    appendSearchResult(sb, result.getTitle(), result.getSnippet());
                 }
+                prefetchTopResults(results);
                 return sb.toString();
             }
         }
@@ -84,6 +156,78 @@ public class OsrsWikiClient
         }
     }
 
+    /**
+     * Start downloading the top search results that have never been read, since the next step
+     * is usually to read the first one or two.
+     */
+    private void prefetchTopResults(List<WikiSearchResult> results)
+    {
+        int count = Math.min(config.prefetchResults(), results.size());
+        for (int i = 0; i < count; i++)
+        {
+            String title = results.get(i).getTitle();
+            // The store is checked on the loader thread, keeping disk reads off the search path
+            prefetched.prefetch(WikiPageStore.normalizeTitle(title),
+                () -> pageStore.get(title) == null ? fetchPage(title, PAGE_PROPS) : null);
+        }
+    }
+
+    /**
+     * Hit/miss and used/wasted byte counters of the search result prefetch.
+     */
+    public String getPrefetchStats()
+    {
+        return prefetched.stats();
+    }
+
+    private static long extractBytes(WikiPage page)
+    {
+        return page.getExtract() != null ? page.getExtract().getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+
+    private static void appendSearchResult(StringBuilder sb, String title, String snippet)
+    {
+        sb.append("## ").append(title).append("\n");
+        sb.append(snippet).append("\n");
+        sb.append("URL: https://oldschool.runescape.wiki/w/")
+            .append(title.replace(" ", "_")).append("\n\n");
+    }
+
+    /**
+     * The configured MediaWiki endpoint, or the OSRS Wiki's when unset.
+     */
+    public String getWikiApiUrl()
+    {
+        return endpoint(config.wikiApiUrl(), WIKI_API);
+    }
+
+    /**
+     * The configured prices API base, or the OSRS Wiki's when unset.
+     */
+    public String getPricesApiUrl()
+    {
+        return endpoint(config.pricesApiUrl(), PRICES_API);
+    }
+
+    private static String endpoint(String configured, String fallback)
+    {
+        if (configured == null || configured.trim().isEmpty())
+        {
+            return fallback;
+        }
+        String url = configured.trim();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * Strip the search-match markup and HTML entities from a search result snippet.
+     */
+    static String stripSnippetHtml(String snippet)
+    {
+        String text = HTML_TAG.matcher(snippet).replaceAll("");
+        return HTML_ENTITY.matcher(text).replaceAll(" ");
+    }
+
     /**
      * Get the full text content of a specific wiki page.
      */
@@ -91,180 +235,651 @@ public class OsrsWikiClient
     {
         try
         {
-            String encodedTitle = URLEncoder.encode(title, StandardCharsets.UTF_8.name());
-            String url = WIKI_API + "?action=query&titles=" + encodedTitle
-                + "&prop=extracts&exintro=false&explaintext=true&format=json";
+            WikiPageStore.Entry page = loadPage(title);
+            return page != null ? formatPage(page) : "Wiki page not found: " + title;
+        }
+        catch (IOException e)
+        {
+            log.error("Wiki page fetch failed", e);
+            return "Wiki page fetch failed: " + e.getMessage();
+        }
+    }
 
-            Request request = new Request.Builder()
-                .url(url)
-                .header("User-Agent", USER_AGENT)
-                .get()
-                .build();
+    /**
+     * Get only the sections of a wiki page that best match a query, plus the names of the
+     * others, instead of the whole (possibly truncated) article.
+     */
+    public String getSections(String title, String query, int maxSections)
+    {
+        try
+        {
+            WikiPageStore.Entry page = loadPage(title);
+            if (page == null)
+            {
+                return "Wiki page not found: " + title;
+            }
 
-            try (Response response = httpClient.newCall(request).execute())
+            List<WikiSections.Section> sections = WikiSections.parse(page.getExtract());
+            List<WikiSections.Section> chosen = WikiSections.rank(sections, query, maxSections);
+            if (chosen.isEmpty())
             {
-                if (!response.isSuccessful() || response.body() == null)
+                return formatPage(page);
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append("# ").append(page.getTitle()).append("\n\n");
+            int budget = MAX_PAGE_CHARS;
+            for (WikiSections.Section section : chosen)
+            {
+                String text = section.getText();
+                if (text.length() > budget)
                 {
-                    return "Wiki page fetch failed: HTTP " + response.code();
+                    text = text.substring(0, Math.max(0, budget)) + "\n\n[... section truncated for length ...]";
                 }
-                String body = response.body().string();
-                JsonObject json = JsonParser.parseString(body).getAsJsonObject();
-                JsonObject pages = json.getAsJsonObject("query").getAsJsonObject("pages");
-
-                for (String key : pages.keySet())
+                sb.append(text).append("\n\n");
+                budget -= text.length();
+                if (budget <= 0)
                 {
-                    if ("-1".equals(key))
-                    {
-                        return "Wiki page not found: " + title;
-                    }
-                    JsonObject page = pages.getAsJsonObject(key);
-                    String pageTitle = page.get("title").getAsString();
-                    String extract = page.has("extract") ? page.get("extract").getAsString() : "No content available.";
-
-                    // Truncate very long pages
-                    if (extract.length() > 8000)
-                    {
-                        extract = extract.substring(0, 8000) + "\n\n[... content truncated for length ...]";
-                    }
+                    break;
+                }
+            }
 
-                    return "# " + pageTitle + "\n\n" + extract;
+            StringBuilder others = new StringBuilder();
+            for (WikiSections.Section section : sections)
+            {
+                if (!chosen.contains(section) && !section.getHeading().isEmpty())
+                {
+                    others.append(others.length() > 0 ? ", " : "").append(section.getHeading());
                 }
-                return "No page data returned.";
             }
+            if (others.length() > 0)
+            {
+                sb.append("Other sections: ").append(others).append('\n');
+            }
+            return sb.toString();
         }
         catch (IOException e)
         {
-            log.error("Wiki page fetch failed", e);
-            return "Wiki page fetch failed: " + e.getMessage();
+            log.error("Wiki section fetch failed", e);
+            return "Wiki section fetch failed: " + e.getMessage();
         }
     }
 
     /**
-     * Get item price from the OSRS Wiki real-time prices API.
-     * First resolves the item ID via the wiki mapping endpoint, then fetches the latest price.
+     * Get up to {@link #MAX_BATCH_PAGES} wiki pages at once, each cut to an equal share of the
+     * batch budget; further titles are listed as not fetched.
+     * Stored pages are revalidated together in one revision query; only unseen or changed pages
+     * are downloaded, in parallel, since TextExtracts returns one full extract per request.
      */
-    public String getItemPrice(String itemName)
+    public String getPages(List<String> titles)
     {
-        try
+        // Spellings of the same page, e.g. "Abyssal_whip" and "abyssal whip", are fetched once
+        Map<String, String> distinct = new LinkedHashMap<>();
+        for (String title : titles)
         {
-            // Step 1: Get item mapping to find the item ID
-            String mappingUrl = "https://prices.runescape.wiki/api/v1/osrs/mapping";
-            Request mappingReq = new Request.Builder()
-                .url(mappingUrl)
-                .header("User-Agent", USER_AGENT)
-                .get()
-                .build();
-
-            int itemId = -1;
-            String resolvedName = itemName;
+            distinct.putIfAbsent(WikiPageStore.normalizeTitle(title), title);
+        }
+        List<String> requested = new ArrayList<>(distinct.values());
+        List<String> omitted = Collections.emptyList();
+        if (requested.size() > MAX_BATCH_PAGES)
+        {
+            omitted = requested.subList(MAX_BATCH_PAGES, requested.size());
+            requested = new ArrayList<>(requested.subList(0, MAX_BATCH_PAGES));
+        }
+        if (requested.isEmpty())
+        {
+            return "No titles given.";
+        }
 
-            try (Response mappingResp = httpClient.newCall(mappingReq).execute())
+        Map<String, WikiPageStore.Entry> pages = new HashMap<>();
+        List<String> unchecked = new ArrayList<>();
+        for (String title : requested)
+        {
+            WikiPageStore.Entry stored = pageStore.get(title);
+            if (stored != null)
             {
-                if (!mappingResp.isSuccessful() || mappingResp.body() == null)
+                pages.put(title, stored);
+                if (!stored.isFresh())
                 {
-                    return "Price lookup failed: could not fetch item mapping.";
+                    unchecked.add(title);
                 }
-                String body = mappingResp.body().string();
-                JsonArray items = JsonParser.parseString(body).getAsJsonArray();
-                String lowerName = itemName.toLowerCase();
+            }
+        }
+        if (!unchecked.isEmpty())
+        {
+            revalidate(unchecked, pages);
+        }
 
-                // Try exact match first, then partial
-                for (JsonElement elem : items)
+        Map<String, Future<WikiPageStore.Entry>> downloads = new LinkedHashMap<>();
+        for (String title : requested)
+        {
+            if (!pages.containsKey(title))
+            {
+                downloads.put(title, pageFetcher.submit(() -> downloadPage(title)));
+            }
+        }
+
+        int pageChars = MAX_BATCH_CHARS / requested.size();
+        StringBuilder sb = new StringBuilder();
+        for (String title : requested)
+        {
+            if (sb.length() > 0)
+            {
+                sb.append("\n\n---\n\n");
+            }
+            WikiPageStore.Entry page = pages.get(title);
+            if (page == null)
+            {
+                try
                 {
-                    JsonObject item = elem.getAsJsonObject();
-                    String name = item.get("name").getAsString();
-                    if (name.equalsIgnoreCase(itemName))
-                    {
-                        itemId = item.get("id").getAsInt();
-                        resolvedName = name;
-                        break;
-                    }
+                    page = downloads.get(title).get();
+                }
+                catch (ExecutionException e)
+                {
+                    log.error("Wiki page fetch failed", e.getCause());
+                    sb.append("Wiki page fetch failed for ").append(title).append(": ").append(e.getCause().getMessage());
+                    continue;
                 }
-                if (itemId == -1)
+                catch (InterruptedException e)
                 {
-                    for (JsonElement elem : items)
+                    // The turn was stopped; nobody will read the remaining pages
+                    for (Future<WikiPageStore.Entry> download : downloads.values())
                     {
-                        JsonObject item = elem.getAsJsonObject();
-                        String name = item.get("name").getAsString();
-                        if (name.toLowerCase().contains(lowerName))
-                        {
-                            itemId = item.get("id").getAsInt();
-                            resolvedName = name;
-                            break;
-                        }
+                        download.cancel(true);
                     }
+                    Thread.currentThread().interrupt();
+                    sb.append("Wiki page fetch interrupted for ").append(title);
+                    return sb.toString();
+                }
+            }
+            sb.append(page != null ? formatPage(page, pageChars) : "Wiki page not found: " + title);
+        }
+        if (!omitted.isEmpty())
+        {
+            sb.append("\n\n[Only ").append(MAX_BATCH_PAGES).append(" pages fit in one call. Not fetched: ")
+                .append(String.join(", ", omitted)).append("]");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Check the stored revisions of several pages in one request, dropping those that changed
+     * upstream from pages so they are downloaded again. On failure the stored copies are kept.
+     */
+    private void revalidate(List<String> titles, Map<String, WikiPageStore.Entry> pages)
+    {
+        try
+        {
+            Map<String, Long> revisions = new HashMap<>();
+            for (WikiPage current : fetchPages(titles, "&prop=revisions&rvprop=ids"))
+            {
+                if (!current.isMissing() && current.getTitle() != null)
+                {
+                    revisions.put(current.getTitle(), current.getRevisionId());
+                }
+            }
+            for (String title : titles)
+            {
+                WikiPageStore.Entry stored = pages.get(title);
+                Long revision = revisions.get(WikiPageStore.normalizeTitle(title));
+                if (revision != null && revision == stored.getRevisionId())
+                {
+                    stored.markChecked();
                 }
+                else
+                {
+                    pages.remove(title);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("Wiki page revalidation failed, serving stored copies of {}", titles, e);
+        }
+    }
+
+    /**
+     * The full page, served from the page store when the stored revision is fresh or still
+     * current upstream; only a changed or unseen page is downloaded in full.
+     *
+     * @return the page, or null if it does not exist
+     */
+    private WikiPageStore.Entry loadPage(String title) throws IOException
+    {
+        WikiPageStore.Entry stored = pageStore.get(title);
+        if (stored != null && stored.isFresh())
+        {
+            return stored;
+        }
+
+        try
+        {
+            if (stored != null)
+            {
+                WikiPage current = fetchPage(title, "&prop=revisions&rvprop=ids");
+                if (current != null && current.getRevisionId() == stored.getRevisionId())
+                {
+                    stored.markChecked();
+                    return stored;
+                }
+            }
+
+            return downloadPage(title);
+        }
+        catch (IOException e)
+        {
+            if (stored == null)
+            {
+                throw e;
+            }
+            // Better a possibly outdated page than none
+            log.warn("Wiki page revalidation failed, serving stored copy of {}", title, e);
+            return stored;
+        }
+    }
+
+    /**
+     * Download a page's full extract and revision id, or take it from the prefetch cache, and
+     * store and index it.
+     *
+     * @return the page, or null if it does not exist
+     */
+    private WikiPageStore.Entry downloadPage(String title) throws IOException
+    {
+        WikiPage page = prefetched.take(WikiPageStore.normalizeTitle(title));
+        if (page == null)
+        {
+            page = fetchPage(title, PAGE_PROPS);
+        }
+        if (page == null || page.isMissing())
+        {
+            return null;
+        }
+        String extract = page.getExtract() != null ? page.getExtract() : "";
+        searchIndex.add(page.getTitle(), extract);
+        return pageStore.put(title, page.getTitle(), page.getRevisionId(), extract);
+    }
+
+    private static String formatPage(WikiPageStore.Entry page)
+    {
+        return formatPage(page, MAX_PAGE_CHARS);
+    }
+
+    private static String formatPage(WikiPageStore.Entry page, int maxChars)
+    {
+        String extract = page.getExtract().isEmpty() ? "No content available." : page.getExtract();
+
+        // Truncate very long pages
+        if (extract.length() > maxChars)
+        {
+            extract = extract.substring(0, maxChars) + "\n\n[... content truncated for length ...]";
+        }
+
+        return "# " + page.getTitle() + "\n\n" + extract;
+    }
+
+    /**
+     * Query one title with the given {@code prop} parameters.
+     *
+     * @return the page, or null if the response contained none
+     */
+    private WikiPage fetchPage(String title, String props) throws IOException
+    {
+        List<WikiPage> pages = fetchPages(Collections.singletonList(title), props);
+        return pages.isEmpty() ? null : pages.get(0);
+    }
+
+    /**
+     * Query several titles in one request with the given {@code prop} parameters. Callers pass
+     * at most {@link #MAX_BATCH_PAGES}, well under the API's limit of 50 titles per request.
+     * Pages come back under their normalized titles, in no particular order.
+     */
+    private List<WikiPage> fetchPages(List<String> titles, String props) throws IOException
+    {
+        String encodedTitles = URLEncoder.encode(String.join("|", titles), StandardCharsets.UTF_8.name());
+        String url = getWikiApiUrl() + "?action=query&titles=" + encodedTitles + props + "&format=json";
+
+        Request request = new Request.Builder()
+            .url(url)
+            .header("User-Agent", USER_AGENT)
+            .get()
+            .build();
+
+        try (Response response = httpClient.newCall(request).execute())
+        {
+            if (!response.isSuccessful() || response.body() == null)
+            {
+                throw new IOException("HTTP " + response.code());
+            }
+            try (JsonReader reader = new JsonReader(response.body().charStream()))
+            {
+                return WikiPage.parse(reader);
+            }
+        }
+    }
+
+    /**
+     * Get item price from the OSRS Wiki real-time prices API.
+     * Resolves the item ID against the resident item index and reads the price from the bulk
+     * snapshot, falling back to a single-item request while the snapshot is missing or stale.
+     */
+    public String getItemPrice(String itemName)
+    {
+        try
+        {
+            ItemIndex index = getItemIndex();
+            if (index == null)
+            {
+                return "Price lookup failed: could not fetch item mapping.";
             }
 
+            int itemId = index.find(itemName);
             if (itemId == -1)
             {
                 return "Item not found: " + itemName + ". Try a more specific name.";
             }
+            String resolvedName = index.getName(itemId);
 
-            // Step 2: Get latest price for this item
-            String priceUrl = "https://prices.runescape.wiki/api/v1/osrs/latest?id=" + itemId;
-            Request priceReq = new Request.Builder()
-                .url(priceUrl)
-                .header("User-Agent", USER_AGENT)
-                .get()
-                .build();
+            PriceSnapshot snapshot = getPriceSnapshot();
+            if (snapshot == null)
+            {
+                snapshot = fetchItemPrices(itemId);
+            }
+            if (snapshot == null)
+            {
+                return "Price lookup failed: could not fetch price data.";
+            }
+            if (!snapshot.has(itemId))
+            {
+                return "No price data available for " + resolvedName + " (ID: " + itemId + ").";
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append("Grand Exchange Price for **").append(resolvedName).append("** (ID: ").append(itemId).append(")\n\n");
+            appendPrice(sb, snapshot, itemId);
+            sb.append("Price data age: ").append(snapshot.getAgeSeconds()).append("s\n");
+            sb.append("\nWiki: https://oldschool.runescape.wiki/w/")
+                .append(resolvedName.replace(" ", "_"));
+
+            return sb.toString();
+        }
+        catch (IOException e)
+        {
+            log.error("Price lookup failed", e);
+            return "Price lookup failed: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Get prices for several items at once from the bulk price snapshot, or with one single-item
+     * request per item while the snapshot is missing or stale.
+     */
+    public String getItemPrices(List<String> itemNames)
+    {
+        ItemIndex index = getItemIndex();
+        if (index == null)
+        {
+            return "Price lookup failed: could not fetch item mapping.";
+        }
+        PriceSnapshot snapshot = getPriceSnapshot();
 
-            try (Response priceResp = httpClient.newCall(priceReq).execute())
+        StringBuilder sb = new StringBuilder();
+        if (snapshot != null)
+        {
+            sb.append("Grand Exchange Prices (data age: ").append(snapshot.getAgeSeconds()).append("s)\n");
+        }
+        else
+        {
+            sb.append("Grand Exchange Prices (latest per item)\n");
+        }
+        for (String itemName : itemNames)
+        {
+            int itemId = index.find(itemName);
+            if (itemId == -1)
+            {
+                sb.append("\n").append(itemName).append(": item not found\n");
+                continue;
+            }
+            sb.append("\n**").append(index.getName(itemId)).append("** (ID: ").append(itemId).append(")\n");
+            PriceSnapshot prices = snapshot;
+            if (prices == null)
             {
-                if (!priceResp.isSuccessful() || priceResp.body() == null)
+                try
                 {
-                    return "Price lookup failed: could not fetch price data.";
+                    prices = fetchItemPrices(itemId);
                 }
-                String body = priceResp.body().string();
-                JsonObject json = JsonParser.parseString(body).getAsJsonObject();
-                JsonObject data = json.getAsJsonObject("data");
-                JsonObject itemData = data.getAsJsonObject(String.valueOf(itemId));
-
-                if (itemData == null)
+                catch (IOException e)
                 {
-                    return "No price data available for " + resolvedName + " (ID: " + itemId + ").";
+                    log.warn("Price fetch for item {} failed", itemId, e);
                 }
-
-                StringBuilder sb = new StringBuilder();
-                sb.append("Grand Exchange Price for **").append(resolvedName).append("** (ID: ").append(itemId).append(")\n\n");
-
-                if (itemData.has("high") && !itemData.get("high").isJsonNull())
+                if (prices == null)
                 {
-                    sb.append("Instant buy: ").append(String.format("%,d", itemData.get("high").getAsLong())).append(" gp\n");
+                    sb.append("Price fetch failed\n");
+                    continue;
                 }
-                if (itemData.has("low") && !itemData.get("low").isJsonNull())
+            }
+            if (prices.has(itemId))
+            {
+                appendPrice(sb, prices, itemId);
+            }
+            else
+            {
+                sb.append("No price data available\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendPrice(StringBuilder sb, PriceSnapshot snapshot, int itemId)
+    {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        if (snapshot.getHigh(itemId) != PriceSnapshot.NONE)
+        {
+            sb.append("Instant buy: ").append(String.format("%,d", snapshot.getHigh(itemId))).append(" gp\n");
+        }
+        if (snapshot.getLow(itemId) != PriceSnapshot.NONE)
+        {
+            sb.append("Instant sell: ").append(String.format("%,d", snapshot.getLow(itemId))).append(" gp\n");
+        }
+        if (snapshot.getHighTime(itemId) != PriceSnapshot.NONE)
+        {
+            long minutesAgo = (nowSeconds - snapshot.getHighTime(itemId)) / 60;
+            sb.append("Last buy: ").append(minutesAgo).append(" min ago\n");
+        }
+        if (snapshot.getLowTime(itemId) != PriceSnapshot.NONE)
+        {
+            long minutesAgo = (nowSeconds - snapshot.getLowTime(itemId)) / 60;
+            sb.append("Last sell: ").append(minutesAgo).append(" min ago\n");
+        }
+    }
+
+    /**
+     * The current bulk price snapshot. Marks prices as in demand so the background poller keeps
+     * it fresh. If the poller has been idle, starts a refresh in the background rather than
+     * making the caller wait for the bulk download.
+     *
+     * @return the snapshot, or null if there is none yet or it is too old to answer from
+     */
+    private PriceSnapshot getPriceSnapshot()
+    {
+        lastPriceRequestMillis = System.currentTimeMillis();
+        PriceSnapshot snapshot = priceSnapshot;
+        if (snapshot == null || snapshot.getAgeSeconds() > 2L * getPriceRefreshSeconds())
+        {
+            requestPriceRefresh();
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Queue one bulk refresh on the background thread, unless one is already queued.
+     */
+    private void requestPriceRefresh()
+    {
+        if (!priceRefreshQueued.compareAndSet(false, true))
+        {
+            return;
+        }
+        try
+        {
+            scheduler.execute(() -> {
+                try
                 {
-                    sb.append("Instant sell: ").append(String.format("%,d", itemData.get("low").getAsLong())).append(" gp\n");
+                    refreshPriceSnapshot();
                 }
-                if (itemData.has("highTime") && !itemData.get("highTime").isJsonNull())
+                finally
                 {
-                    long ts = itemData.get("highTime").getAsLong();
-                    long minutesAgo = (System.currentTimeMillis() / 1000 - ts) / 60;
-                    sb.append("Last buy: ").append(minutesAgo).append(" min ago\n");
+                    priceRefreshQueued.set(false);
                 }
-                if (itemData.has("lowTime") && !itemData.get("lowTime").isJsonNull())
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            // Shutting down
+            priceRefreshQueued.set(false);
+        }
+    }
+
+    private PriceSnapshot fetchItemPrices(int itemId) throws IOException
+    {
+        return fetchPrices(getPricesApiUrl() + "/latest?id=" + itemId);
+    }
+
+    private int getPriceRefreshSeconds()
+    {
+        return Math.max(MIN_PRICE_REFRESH_SECONDS, config.priceRefreshSeconds());
+    }
+
+    private void schedulePricePoll()
+    {
+        if (!scheduler.isShutdown())
+        {
+            scheduler.schedule(this::pollPrices, getPriceRefreshSeconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    private void pollPrices()
+    {
+        try
+        {
+            // Only keep polling while someone is asking about prices
+            if (System.currentTimeMillis() - lastPriceRequestMillis < PRICE_POLL_IDLE_MILLIS)
+            {
+                refreshPriceSnapshot();
+            }
+        }
+        finally
+        {
+            schedulePricePoll();
+        }
+    }
+
+    private void refreshPriceSnapshot()
+    {
+        synchronized (priceLock)
+        {
+            PriceSnapshot current = priceSnapshot;
+            if (current != null && current.getAgeSeconds() < getPriceRefreshSeconds() / 2)
+            {
+                // Another thread refreshed it while we waited for the lock
+                return;
+            }
+            try
+            {
+                PriceSnapshot snapshot = fetchPrices(getPricesApiUrl() + "/latest");
+                if (snapshot != null)
                 {
-                    long ts = itemData.get("lowTime").getAsLong();
-                    long minutesAgo = (System.currentTimeMillis() / 1000 - ts) / 60;
-                    sb.append("Last sell: ").append(minutesAgo).append(" min ago\n");
+                    priceSnapshot = snapshot;
                 }
+            }
+            catch (IOException | RuntimeException e)
+            {
+                log.warn("Price snapshot refresh failed", e);
+            }
+        }
+    }
 
-                sb.append("\nWiki: https://oldschool.runescape.wiki/w/")
-                    .append(resolvedName.replace(" ", "_"));
+    private PriceSnapshot fetchPrices(String url) throws IOException
+    {
+        Request request = new Request.Builder()
+            .url(url)
+            .header("User-Agent", USER_AGENT)
+            .get()
+            .build();
 
-                return sb.toString();
+        try (Response response = httpClient.newCall(request).execute())
+        {
+            if (!response.isSuccessful() || response.body() == null)
+            {
+                log.warn("Price fetch failed: HTTP {}", response.code());
+                return null;
+            }
+            try (JsonReader reader = new JsonReader(response.body().charStream()))
+            {
+                return PriceSnapshot.parse(reader, System.currentTimeMillis());
             }
         }
-        catch (IOException e)
+    }
+
+    /**
+     * The item index, loading it on the calling thread if the background load has not completed yet.
+     */
+    private ItemIndex getItemIndex()
+    {
+        ItemIndex index = itemIndex;
+        if (index == null)
         {
-            log.error("Price lookup failed", e);
-            return "Price lookup failed: " + e.getMessage();
+            synchronized (indexLock)
+            {
+                if (itemIndex == null)
+                {
+                    refreshItemIndex();
+                }
+                index = itemIndex;
+            }
+        }
+        return index;
+    }
+
+    private void refreshItemIndex()
+    {
+        synchronized (indexLock)
+        {
+            Request request = new Request.Builder()
+                .url(getPricesApiUrl() + "/mapping")
+                .header("User-Agent", USER_AGENT)
+                .get()
+                .build();
+
+            try (Response response = httpClient.newCall(request).execute())
+            {
+                if (!response.isSuccessful() || response.body() == null)
+                {
+                    log.warn("Item mapping refresh failed: HTTP {}", response.code());
+                    return;
+                }
+                try (JsonReader reader = new JsonReader(response.body().charStream()))
+                {
+                    itemIndex = ItemIndex.parse(reader);
+                }
+                log.debug("Loaded item index with {} items", itemIndex.size());
+            }
+            catch (IOException | RuntimeException e)
+            {
+                // Keep serving the previous index; the next scheduled refresh will retry
+                log.warn("Item mapping refresh failed", e);
+            }
         }
     }
 
     public void shutdown()
     {
-        httpClient.dispatcher().executorService().shutdown();
-        httpClient.connectionPool().evictAll();
+        log.debug("Wiki prefetch: {}", prefetched.stats());
+        scheduler.shutdownNow();
+        indexRefresher.shutdownNow();
+        pageFetcher.shutdownNow();
+        prefetched.shutdown();
+        searchIndex.shutdown();
     }
 }
@@ -0,0 +1,411 @@
+package com.runeliteagent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.runelite.client.plugins.Plugin;
+import net.runelite.client.plugins.PluginDescriptor;
+
+/**
+ * Precomputed search index over installed plugins: normalized names, name tokens and trigrams,
+ * descriptor tags and descriptions. Resolves a free-form plugin name to ranked candidates with a
+ * confidence score, so ambiguous names can be reported instead of silently picking the first
+ * substring hit. Immutable; rebuilt when plugins change.
+ */
+public class PluginIndex
+{
+    private static final double MIN_SCORE = 0.5;
+    // Name prefix or better; weaker matches are only offered as candidates to changing tools
+    private static final double CONFIDENT_SCORE = 0.9;
+    private static final double AMBIGUITY_MARGIN = 0.05;
+    private static final int MAX_CANDIDATES = 5;
+
+    private final List<Entry> entries;
+
+    public PluginIndex(List<Entry> entries)
+    {
+        this.entries = entries;
+    }
+
+    public static PluginIndex build(Collection<Plugin> plugins)
+    {
+        List<Entry> entries = new ArrayList<>(plugins.size());
+        for (Plugin plugin : plugins)
+        {
+            PluginDescriptor descriptor = plugin.getClass().getAnnotation(PluginDescriptor.class);
+            String description = descriptor != null ? descriptor.description() : "";
+            String[] tags = descriptor != null ? descriptor.tags() : new String[0];
+            entries.add(new Entry(plugin, plugin.getName(), description, tags));
+        }
+        return new PluginIndex(entries);
+    }
+
+    /**
+     * Rank plugins against a name. The resolution is unambiguous when the best candidate is an
+     * exact name match or clearly ahead of the runner-up.
+     */
+    public Resolution resolve(String query)
+    {
+        String normalized = normalize(query);
+        String[] queryTokens = tokens(normalized);
+        Set<String> queryTrigrams = trigrams(normalized);
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (Entry entry : entries)
+        {
+            double score = score(entry, normalized, queryTokens, queryTrigrams);
+            if (score >= MIN_SCORE)
+            {
+                candidates.add(new Candidate(entry, score));
+            }
+        }
+        candidates.sort((a, b) -> Double.compare(b.score, a.score));
+        if (candidates.size() > MAX_CANDIDATES)
+        {
+            candidates = new ArrayList<>(candidates.subList(0, MAX_CANDIDATES));
+        }
+
+        boolean ambiguous = candidates.size() > 1
+            && candidates.get(0).score < 1.0
+            && candidates.get(0).score - candidates.get(1).score < AMBIGUITY_MARGIN;
+        return new Resolution(Collections.unmodifiableList(candidates), ambiguous);
+    }
+
+    /**
+     * The closest plugin names regardless of the match threshold, for "did you mean" hints.
+     */
+    public List<String> suggestions(String query, int count)
+    {
+        String normalized = normalize(query);
+        Set<String> queryTrigrams = trigrams(normalized);
+        List<Candidate> all = new ArrayList<>();
+        for (Entry entry : entries)
+        {
+            all.add(new Candidate(entry, dice(entry.trigrams, queryTrigrams)));
+        }
+        all.sort((a, b) -> Double.compare(b.score, a.score));
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, all.size()) && all.get(i).score > 0; i++)
+        {
+            names.add(all.get(i).entry.name);
+        }
+        return names;
+    }
+
+    private static double score(Entry entry, String query, String[] queryTokens, Set<String> queryTrigrams)
+    {
+        if (query.isEmpty())
+        {
+            return 0;
+        }
+        if (entry.normalizedName.equals(query))
+        {
+            return 1.0;
+        }
+        if (entry.compactName.equals(query.replace(" ", "")))
+        {
+            return 0.98;
+        }
+
+        double score = 0;
+        if (entry.normalizedName.startsWith(query))
+        {
+            score = 0.9;
+        }
+        else if (allTokensArePrefixes(queryTokens, entry.nameTokens))
+        {
+            score = 0.85;
+        }
+        else if (entry.normalizedName.contains(query))
+        {
+            score = 0.8;
+        }
+
+        score = Math.max(score, 0.75 * dice(entry.trigrams, queryTrigrams));
+        score = Math.max(score, 0.7 * tokenSimilarity(queryTokens, entry.nameTokens));
+
+        if (allTokensIn(queryTokens, entry.tags))
+        {
+            score = Math.max(score, 0.65);
+        }
+        if (allTokensContained(queryTokens, entry.normalizedDescription))
+        {
+            score = Math.max(score, 0.55);
+        }
+        return score;
+    }
+
+    private static boolean allTokensArePrefixes(String[] queryTokens, String[] nameTokens)
+    {
+        for (String q : queryTokens)
+        {
+            boolean found = false;
+            for (String n : nameTokens)
+            {
+                if (n.startsWith(q))
+                {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found)
+            {
+                return false;
+            }
+        }
+        return queryTokens.length > 0;
+    }
+
+    private static boolean allTokensIn(String[] queryTokens, Set<String> tags)
+    {
+        for (String q : queryTokens)
+        {
+            if (!tags.contains(q))
+            {
+                return false;
+            }
+        }
+        return queryTokens.length > 0;
+    }
+
+    private static boolean allTokensContained(String[] queryTokens, String text)
+    {
+        for (String q : queryTokens)
+        {
+            if (q.length() < 3 || !text.contains(q))
+            {
+                return false;
+            }
+        }
+        return queryTokens.length > 0;
+    }
+
+    /**
+     * Mean over query tokens of the best edit-distance similarity to any name token, which
+     * tolerates typos such as "groud items".
+     */
+    private static double tokenSimilarity(String[] queryTokens, String[] nameTokens)
+    {
+        if (queryTokens.length == 0 || nameTokens.length == 0)
+        {
+            return 0;
+        }
+        double total = 0;
+        for (String q : queryTokens)
+        {
+            double best = 0;
+            for (String n : nameTokens)
+            {
+                int distance = levenshtein(q, n);
+                best = Math.max(best, 1.0 - (double) distance / Math.max(q.length(), n.length()));
+            }
+            total += best;
+        }
+        return total / queryTokens.length;
+    }
+
+    private static int levenshtein(String a, String b)
+    {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++)
+        {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++)
+        {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++)
+            {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static double dice(Set<String> a, Set<String> b)
+    {
+        if (a.isEmpty() || b.isEmpty())
+        {
+            return 0;
+        }
+        int shared = 0;
+        for (String gram : b)
+        {
+            if (a.contains(gram))
+            {
+                shared++;
+            }
+        }
+        return 2.0 * shared / (a.size() + b.size());
+    }
+
+    static String normalize(String text)
+    {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c))
+            {
+                sb.append(c);
+                space = false;
+            }
+            else if (!space)
+            {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ')
+        {
+            sb.setLength(end - 1);
+        }
+        return sb.toString();
+    }
+
+    private static String[] tokens(String normalized)
+    {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static Set<String> trigrams(String normalized)
+    {
+        Set<String> grams = new HashSet<>();
+        String padded = "  " + normalized + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++)
+        {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * One indexed plugin. The plugin reference may be null for synthetic entries.
+     */
+    public static class Entry
+    {
+        private final Plugin plugin;
+        private final String name;
+        private final String normalizedName;
+        private final String compactName;
+        private final String[] nameTokens;
+        private final Set<String> trigrams;
+        private final Set<String> tags;
+        private final String normalizedDescription;
+
+        public Entry(Plugin plugin, String name, String description, String[] tags)
+        {
+            this.plugin = plugin;
+            this.name = name;
+            this.normalizedName = normalize(name);
+            this.compactName = normalizedName.replace(" ", "");
+            this.nameTokens = tokens(normalizedName);
+            this.trigrams = PluginIndex.trigrams(normalizedName);
+            this.tags = new HashSet<>();
+            for (String tag : tags)
+            {
+                this.tags.add(normalize(tag));
+            }
+            this.normalizedDescription = normalize(description);
+        }
+
+        public Plugin getPlugin()
+        {
+            return plugin;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+    }
+
+    public static class Candidate
+    {
+        private final Entry entry;
+        private final double score;
+
+        Candidate(Entry entry, double score)
+        {
+            this.entry = entry;
+            this.score = score;
+        }
+
+        public Entry getEntry()
+        {
+            return entry;
+        }
+
+        public double getScore()
+        {
+            return score;
+        }
+    }
+
+    public static class Resolution
+    {
+        private final List<Candidate> candidates;
+        private final boolean ambiguous;
+
+        Resolution(List<Candidate> candidates, boolean ambiguous)
+        {
+            this.candidates = candidates;
+            this.ambiguous = ambiguous;
+        }
+
+        public List<Candidate> getCandidates()
+        {
+            return candidates;
+        }
+
+        public boolean isAmbiguous()
+        {
+            return ambiguous;
+        }
+
+        /**
+         * Whether the best candidate is safe to act on without confirmation: an exact name, or
+         * a close name match that is clearly ahead of the runner-up.
+         */
+        public boolean isConfident()
+        {
+            return !ambiguous && !candidates.isEmpty() && candidates.get(0).score >= CONFIDENT_SCORE;
+        }
+
+        /**
+         * @return the best candidate, or null if nothing matched
+         */
+        public Candidate getBest()
+        {
+            return candidates.isEmpty() ? null : candidates.get(0);
+        }
+
+        /**
+         * Human-readable candidate list with confidences, e.g. "Ground Items (90%), Ground Markers (90%)".
+         */
+        public String describeCandidates()
+        {
+            StringBuilder sb = new StringBuilder();
+            for (Candidate candidate : candidates)
+            {
+                if (sb.length() > 0)
+                {
+                    sb.append(", ");
+                }
+                sb.append(candidate.entry.name).append(" (").append(Math.round(candidate.score * 100)).append("%)");
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.runeliteagent;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Short-lived cache of speculatively loaded values. Loads run one at a time on a low-priority
+ * thread so they never compete with requests the user is waiting on; a value that is not taken
+ * within the time to live is dropped and its size counted as wasted.
+ * <p>
+ * Taking a value that is still loading waits for it, up to a limit, rather than starting a second
+ * request. A value whose load has not started yet is cancelled instead, so the caller loads it
+ * directly rather than queueing behind other prefetches. Every {@link #take} is either a hit or
+ * a miss, so the counters show how well the prefetch predicts what is asked for next.
+ */
+@Slf4j
+public class PrefetchCache<V>
+{
+    private static final long TAKE_WAIT_MILLIS = 3000;
+
+    private final long ttlMillis;
+    private final int capacity;
+    private final ToLongFunction<V> sizeOf;
+    private final ExecutorService loader;
+    // Insertion ordered, so the eldest entries come first when expiring or evicting
+    private final Map<String, Prefetch<V>> entries = new LinkedHashMap<>();
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong wastedBytes = new AtomicLong();
+
+    /**
+     * @param sizeOf the size of a loaded value in bytes, for the used/wasted counters
+     */
+    public PrefetchCache(String threadName, long ttlMillis, int capacity, ToLongFunction<V> sizeOf)
+    {
+        this.ttlMillis = ttlMillis;
+        this.capacity = capacity;
+        this.sizeOf = sizeOf;
+        this.loader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Start loading a value in the background unless one is already cached or loading.
+     */
+    public synchronized void prefetch(String key, Callable<V> load)
+    {
+        expire();
+        if (entries.containsKey(key) || loader.isShutdown())
+        {
+            return;
+        }
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<V> future = loader.submit(() -> claimed.compareAndSet(false, true) ? load.call() : null);
+        entries.put(key, new Prefetch<>(future, claimed, System.currentTimeMillis()));
+        issued.incrementAndGet();
+
+        Iterator<Prefetch<V>> eldest = entries.values().iterator();
+        while (entries.size() > capacity && eldest.hasNext())
+        {
+            discard(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Remove and return a prefetched value, waiting a bounded time if it is still loading.
+     *
+     * @return the value, or null if it was not prefetched, has expired, had not started loading,
+     * took too long or failed to load
+     */
+    public V take(String key)
+    {
+        Prefetch<V> prefetch;
+        synchronized (this)
+        {
+            expire();
+            prefetch = entries.remove(key);
+        }
+
+        V value = null;
+        if (prefetch != null && prefetch.claimed.compareAndSet(false, true))
+        {
+            // Still queued; the loader will skip it
+            prefetch.future.cancel(false);
+        }
+        else if (prefetch != null)
+        {
+            try
+            {
+                value = prefetch.future.get(TAKE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (ExecutionException e)
+            {
+                log.debug("Prefetch of {} failed", key, e.getCause());
+            }
+            catch (TimeoutException e)
+            {
+                log.debug("Prefetch of {} took longer than {} ms", key, TAKE_WAIT_MILLIS);
+                prefetch.future.cancel(true);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (value == null)
+        {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        usedBytes.addAndGet(sizeOf.applyAsLong(value));
+        return value;
+    }
+
+    /**
+     * Counters for tuning how much to prefetch, e.g.
+     * "3 prefetched, 2 hits / 1 misses (67%), 41.2 KB used, 18.0 KB wasted".
+     */
+    public synchronized String stats()
+    {
+        expire();
+        long taken = hits.get() + misses.get();
+        return issued.get() + " prefetched, " + hits.get() + " hits / " + misses.get() + " misses ("
+            + (taken > 0 ? hits.get() * 100 / taken : 0) + "%), "
+            + kilobytes(usedBytes.get()) + " used, " + kilobytes(wastedBytes.get()) + " wasted";
+    }
+
+    public void shutdown()
+    {
+        loader.shutdownNow();
+    }
+
+    private void expire()
+    {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        Iterator<Prefetch<V>> it = entries.values().iterator();
+        while (it.hasNext())
+        {
+            Prefetch<V> prefetch = it.next();
+            if (prefetch.createdAtMillis >= cutoff)
+            {
+                break;
+            }
+            discard(prefetch);
+            it.remove();
+        }
+    }
+
+    /**
+     * Drop an entry that was never taken, counting what it downloaded as wasted.
+     */
+    private void discard(Prefetch<V> prefetch)
+    {
+        if (!prefetch.future.isDone())
+        {
+            prefetch.future.cancel(true);
+            return;
+        }
+        try
+        {
+            V value = prefetch.future.get();
+            if (value != null)
+            {
+                wastedBytes.addAndGet(sizeOf.applyAsLong(value));
+            }
+        }
+        catch (ExecutionException | InterruptedException | RuntimeException e)
+        {
+            // Failed or cancelled loads downloaded nothing worth counting
+        }
+    }
+
+    private static String kilobytes(long bytes)
+    {
+        long tenths = (bytes * 10 + 512) / 1024;
+        return tenths / 10 + "." + tenths % 10 + " KB";
+    }
+
+    private static final class Prefetch<V>
+    {
+        final Future<V> future;
+        // Set by whichever comes first: the loader starting the load, or take giving up on it
+        final AtomicBoolean claimed;
+        final long createdAtMillis;
+
+        Prefetch(Future<V> future, AtomicBoolean claimed, long createdAtMillis)
+        {
+            this.future = future;
+            this.claimed = claimed;
+            this.createdAtMillis = createdAtMillis;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.runeliteagent;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Immutable copy of the bulk {@code /api/v1/osrs/latest} response, stored in primitive arrays
+ * indexed by item id. Missing prices and timestamps are recorded as {@link #NONE}.
+ */
+public final class PriceSnapshot
+{
+    public static final long NONE = -1;
+
+    private final long[] high;
+    private final long[] low;
+    private final long[] highTime;
+    private final long[] lowTime;
+    private final long fetchedAtMillis;
+
+    private PriceSnapshot(long[] high, long[] low, long[] highTime, long[] lowTime, long fetchedAtMillis)
+    {
+        this.high = high;
+        this.low = low;
+        this.highTime = highTime;
+        this.lowTime = lowTime;
+        this.fetchedAtMillis = fetchedAtMillis;
+    }
+
+    /**
+     * Parse a {@code latest} document of the form {@code {"data": {"<id>": {high, highTime, low, lowTime}}}}.
+     */
+    public static PriceSnapshot parse(JsonReader reader, long fetchedAtMillis) throws IOException
+    {
+        int capacity = 1024;
+        long[] high = filled(capacity);
+        long[] low = filled(capacity);
+        long[] highTime = filled(capacity);
+        long[] lowTime = filled(capacity);
+        int maxId = -1;
+
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            if (!"data".equals(reader.nextName()))
+            {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                int id = Integer.parseInt(reader.nextName());
+                if (id >= capacity)
+                {
+                    capacity = Math.max(capacity * 2, id + 1);
+                    high = grow(high, capacity);
+                    low = grow(low, capacity);
+                    highTime = grow(highTime, capacity);
+                    lowTime = grow(lowTime, capacity);
+                }
+                maxId = Math.max(maxId, id);
+
+                reader.beginObject();
+                while (reader.hasNext())
+                {
+                    String field = reader.nextName();
+                    if (reader.peek() != JsonToken.NUMBER)
+                    {
+                        reader.skipValue();
+                        continue;
+                    }
+                    switch (field)
+                    {
+                        case "high":
+                            high[id] = reader.nextLong();
+                            break;
+                        case "low":
+                            low[id] = reader.nextLong();
+                            break;
+                        case "highTime":
+                            highTime[id] = reader.nextLong();
+                            break;
+                        case "lowTime":
+                            lowTime[id] = reader.nextLong();
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+
+        int size = maxId + 1;
+        return new PriceSnapshot(Arrays.copyOf(high, size), Arrays.copyOf(low, size),
+            Arrays.copyOf(highTime, size), Arrays.copyOf(lowTime, size), fetchedAtMillis);
+    }
+
+    public boolean has(int itemId)
+    {
+        return itemId >= 0 && itemId < high.length && (high[itemId] != NONE || low[itemId] != NONE);
+    }
+
+    public long getHigh(int itemId)
+    {
+        return has(itemId) ? high[itemId] : NONE;
+    }
+
+    public long getLow(int itemId)
+    {
+        return has(itemId) ? low[itemId] : NONE;
+    }
+
+    public long getHighTime(int itemId)
+    {
+        return has(itemId) ? highTime[itemId] : NONE;
+    }
+
+    public long getLowTime(int itemId)
+    {
+        return has(itemId) ? lowTime[itemId] : NONE;
+    }
+
+    public long getAgeSeconds()
+    {
+        return (System.currentTimeMillis() - fetchedAtMillis) / 1000;
+    }
+
+    private static long[] filled(int size)
+    {
+        long[] array = new long[size];
+        Arrays.fill(array, NONE);
+        return array;
+    }
+
+    private static long[] grow(long[] array, int size)
+    {
+        int oldSize = array.length;
+        long[] grown = Arrays.copyOf(array, size);
+        Arrays.fill(grown, oldSize, size, NONE);
+        return grown;
+    }
+}
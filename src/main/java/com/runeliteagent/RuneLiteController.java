@@ -2,32 +2,90 @@ package com.runeliteagent;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
-import net.runelite.api.Client;
-import net.runelite.api.Skill;
 import net.runelite.client.config.ConfigManager;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginManager;
 
 @Slf4j
 public class RuneLiteController
 {
+    private static final String RUNELITE_GROUP = "runelite";
+    private static final String LIST_PLUGINS = "list_plugins";
+    private static final String LIST_CONFIG_GROUPS = "list_config_groups";
+    private static final String LIST_CONFIG_KEYS = "list_config_keys:";
+    private static final String GET_CONFIG = "get_config:";
+
     private final ConfigManager configManager;
     private final PluginManager pluginManager;
-    private final Client client;
+    private final ToolResultCache cache = new ToolResultCache();
+    private final ConfigKeyIndex configIndex = new ConfigKeyIndex();
+    private volatile GameStateSnapshot gameState = GameStateSnapshot.LOGGED_OUT;
+    private volatile PluginIndex pluginIndex;
 
-    public RuneLiteController(ConfigManager configManager, PluginManager pluginManager, Client client)
+    public RuneLiteController(ConfigManager configManager, PluginManager pluginManager)
     {
         this.configManager = configManager;
         this.pluginManager = pluginManager;
-        this.client = client;
+    }
+
+    /**
+     * A config value changed: drop the results that rendered it.
+     */
+    public void onConfigChanged(ConfigChanged event)
+    {
+        String group = event.getGroup();
+        configIndex.update(group, event.getKey(), event.getNewValue() != null);
+        cache.invalidate(GET_CONFIG + group + "." + event.getKey());
+        cache.invalidateIf(k -> k.startsWith(LIST_CONFIG_KEYS + group + "\n"));
+        if (event.getOldValue() == null || event.getNewValue() == null)
+        {
+            // A key appeared or disappeared, which can add or remove a whole group
+            cache.invalidateIf(k -> k.startsWith(LIST_CONFIG_GROUPS));
+        }
+        if (RUNELITE_GROUP.equals(group))
+        {
+            // Plugin enabled flags live in the runelite group
+            cache.invalidate(LIST_PLUGINS);
+        }
+    }
+
+    /**
+     * A plugin was loaded, unloaded, started or stopped.
+     */
+    public void onPluginChanged()
+    {
+        cache.invalidate(LIST_PLUGINS);
+        pluginIndex = null;
+    }
+
+    /**
+     * The active RuneLite or RuneScape profile changed, so every config value may be different.
+     */
+    public void onProfileChanged()
+    {
+        rebuildConfigIndex();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Load the config key index from every key in the active profile.
+     */
+    public void rebuildConfigIndex()
+    {
+        configIndex.rebuild(configManager.getConfigurationKeys(""));
     }
 
     /**
      * List all installed plugins and their enabled/disabled status.
      */
     public String listPlugins()
+    {
+        return cache.get(LIST_PLUGINS, this::renderPluginList);
+    }
+
+    private String renderPluginList()
     {
         List<String> lines = new ArrayList<>();
         for (Plugin plugin : pluginManager.getPlugins())
@@ -41,15 +99,17 @@ public class RuneLiteController
     }
 
     /**
-     * Enable a plugin by name (case-insensitive partial match).
+     * Enable a plugin by name (case-insensitive; loose or ambiguous matches are reported, not guessed).
      */
     public String enablePlugin(String pluginName)
     {
-        Plugin plugin = findPlugin(pluginName);
-        if (plugin == null)
+        PluginIndex.Resolution resolution = resolvePlugin(pluginName);
+        String unconfirmed = describeUnconfirmed(pluginName, resolution);
+        if (unconfirmed != null)
         {
-            return "Plugin not found: " + pluginName + ". Use list_plugins to see available plugins.";
+            return unconfirmed;
         }
+        Plugin plugin = resolution.getBest().getEntry().getPlugin();
         if (pluginManager.isPluginEnabled(plugin))
         {
             return "Plugin '" + plugin.getName() + "' is already enabled.";
@@ -58,7 +118,7 @@ public class RuneLiteController
         {
             pluginManager.setPluginEnabled(plugin, true);
             pluginManager.startPlugin(plugin);
-            return "Successfully enabled plugin: " + plugin.getName();
+            return "Successfully enabled plugin: " + plugin.getName() + matchNote(pluginName, resolution.getBest());
         }
         catch (Exception e)
         {
@@ -68,15 +128,17 @@ public class RuneLiteController
     }
 
     /**
-     * Disable a plugin by name (case-insensitive partial match).
+     * Disable a plugin by name (case-insensitive; loose or ambiguous matches are reported, not guessed).
      */
     public String disablePlugin(String pluginName)
     {
-        Plugin plugin = findPlugin(pluginName);
-        if (plugin == null)
+        PluginIndex.Resolution resolution = resolvePlugin(pluginName);
+        String unconfirmed = describeUnconfirmed(pluginName, resolution);
+        if (unconfirmed != null)
         {
-            return "Plugin not found: " + pluginName + ". Use list_plugins to see available plugins.";
+            return unconfirmed;
         }
+        Plugin plugin = resolution.getBest().getEntry().getPlugin();
         if (!pluginManager.isPluginEnabled(plugin))
         {
             return "Plugin '" + plugin.getName() + "' is already disabled.";
@@ -85,7 +147,7 @@ public class RuneLiteController
         {
             pluginManager.setPluginEnabled(plugin, false);
             pluginManager.stopPlugin(plugin);
-            return "Successfully disabled plugin: " + plugin.getName();
+            return "Successfully disabled plugin: " + plugin.getName() + matchNote(pluginName, resolution.getBest());
         }
         catch (Exception e)
         {
@@ -98,6 +160,11 @@ public class RuneLiteController
      * Get the current value of a plugin config key.
      */
     public String getConfigValue(String group, String key)
+    {
+        return cache.get(GET_CONFIG + group + "." + key, () -> renderConfigValue(group, key));
+    }
+
+    private String renderConfigValue(String group, String key)
     {
         String value = configManager.getConfiguration(group, key);
         if (value == null)
@@ -125,98 +192,68 @@ public class RuneLiteController
     }
 
     /**
-     * Get current player stats.
+     * Publish a new game state snapshot. Called from the client thread when stats or login state change.
+     */
+    public void setGameState(GameStateSnapshot snapshot)
+    {
+        gameState = snapshot;
+    }
+
+    /**
+     * Get current player stats from the latest game state snapshot.
      */
     public String getPlayerStats()
     {
+        return gameState.render();
+    }
+
+    /**
+     * Get a page of RuneLite configuration groups, optionally filtered by name prefix.
+     */
+    public String listConfigGroups(String prefix, int offset, int limit)
+    {
+        int start = Math.max(0, offset);
+        int size = Math.max(1, limit);
         try
         {
-            if (client.getLocalPlayer() == null)
-            {
-                return "Not logged in - no player stats available.";
-            }
-            String playerName = client.getLocalPlayer().getName();
-            StringBuilder sb = new StringBuilder();
-            sb.append("Player: ").append(playerName != null ? playerName : "Unknown").append("\n");
-            sb.append("Combat Level: ").append(client.getLocalPlayer().getCombatLevel()).append("\n\n");
-            sb.append("Skills:\n");
-            for (Skill skill : Skill.values())
-            {
-                if (skill == Skill.OVERALL)
-                {
-                    continue;
-                }
-                int level = client.getRealSkillLevel(skill);
-                int boosted = client.getBoostedSkillLevel(skill);
-                int xp = client.getSkillExperience(skill);
-                sb.append(String.format("  %-15s Level: %d/%d  XP: %,d\n",
-                    skill.getName(), boosted, level, xp));
-            }
-            return sb.toString();
+            return cache.get(LIST_CONFIG_GROUPS + pageKey(prefix, start, size),
+                () -> renderConfigGroups(prefix, start, size));
         }
         catch (Exception e)
         {
-            return "Could not retrieve player stats: " + e.getMessage();
+            return "Failed to list config groups: " + e.getMessage();
         }
     }
 
-    /**
-     * Get a summary of RuneLite configuration groups.
-     */
-    public String listConfigGroups()
+    private String renderConfigGroups(String prefix, int offset, int limit)
     {
-        try
+        List<String> groups = configIndex.groups(prefix, offset, limit);
+        if (groups.isEmpty())
         {
-            List<String> groups = configManager.getConfigurationKeys("")
-                .stream()
-                .map(k -> {
-                    int dot = k.indexOf('.');
-                    return dot > 0 ? k.substring(0, dot) : k;
-                })
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
-
-            if (groups.isEmpty())
-            {
-                return "No configuration groups found.";
-            }
-            return "Configuration groups:\n" + groups.stream()
-                .map(g -> "- " + g)
-                .collect(Collectors.joining("\n"));
+            return offset > 0 ? "No more configuration groups." : "No configuration groups found.";
         }
-        catch (Exception e)
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Configuration groups:\n");
+        for (int i = 0; i < Math.min(groups.size(), limit); i++)
         {
-            return "Failed to list config groups: " + e.getMessage();
+            sb.append("- ").append(groups.get(i)).append('\n');
         }
+        appendMore(sb, groups.size() > limit, offset + limit);
+        return sb.toString();
     }
 
     /**
-     * List all config keys in a given group.
+     * List a page of config keys in a given group, optionally filtered by key prefix.
      */
-    public String listConfigKeys(String group)
+    public String listConfigKeys(String group, String prefix, int offset, int limit)
     {
+        int start = Math.max(0, offset);
+        int size = Math.max(1, limit);
         try
         {
-            List<String> keys = configManager.getConfigurationKeys(group + ".")
-                .stream()
-                .map(k -> k.substring(group.length() + 1))
-                .sorted()
-                .collect(Collectors.toList());
-
-            if (keys.isEmpty())
-            {
-                return "No config keys found for group '" + group + "'.";
-            }
-
-            StringBuilder sb = new StringBuilder();
-            sb.append("Config keys for [").append(group).append("]:\n");
-            for (String key : keys)
-            {
-                String value = configManager.getConfiguration(group, key);
-                sb.append(String.format("  %s = %s\n", key, value));
-            }
-            return sb.toString();
+            return cache.get(LIST_CONFIG_KEYS + group + "\n" + pageKey(prefix, start, size),
+                () -> renderConfigKeys(group, prefix, start, size));
         }
         catch (Exception e)
         {
@@ -224,25 +261,101 @@ public class RuneLiteController
         }
     }
 
-    private Plugin findPlugin(String name)
+    private String renderConfigKeys(String group, String prefix, int offset, int limit)
     {
-        String lowerName = name.toLowerCase();
-        // Try exact match first
-        for (Plugin plugin : pluginManager.getPlugins())
+        List<String> keys = configIndex.keys(group, prefix, offset, limit);
+        if (keys.isEmpty())
         {
-            if (plugin.getName().equalsIgnoreCase(name))
-            {
-                return plugin;
-            }
+            return offset > 0 ? "No more config keys for group '" + group + "'." : "No config keys found for group '" + group + "'.";
         }
-        // Try partial match
-        for (Plugin plugin : pluginManager.getPlugins())
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Config keys for [").append(group).append("]:\n");
+        for (int i = 0; i < Math.min(keys.size(), limit); i++)
+        {
+            String key = keys.get(i);
+            sb.append("  ").append(key).append(" = ").append(configManager.getConfiguration(group, key)).append('\n');
+        }
+        appendMore(sb, keys.size() > limit, offset + limit);
+        return sb.toString();
+    }
+
+    private static void appendMore(StringBuilder sb, boolean more, int nextOffset)
+    {
+        if (more)
+        {
+            sb.append("(more results available - call again with offset=").append(nextOffset).append(")\n");
+        }
+    }
+
+    private static String pageKey(String prefix, int offset, int limit)
+    {
+        return prefix + "\n" + offset + "\n" + limit;
+    }
+
+    /**
+     * Resolve a plugin name against the plugin index, rebuilding the index if plugins changed.
+     */
+    private PluginIndex.Resolution resolvePlugin(String name)
+    {
+        return getPluginIndex().resolve(name);
+    }
+
+    private PluginIndex getPluginIndex()
+    {
+        PluginIndex index = pluginIndex;
+        if (index == null)
         {
-            if (plugin.getName().toLowerCase().contains(lowerName))
-            {
-                return plugin;
-            }
+            index = PluginIndex.build(pluginManager.getPlugins());
+            pluginIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * The tool message for a name that did not resolve to a single plugin, or null if it did.
+     */
+    private String describeUnresolved(String pluginName, PluginIndex.Resolution resolution)
+    {
+        if (resolution.getBest() == null)
+        {
+            List<String> suggestions = getPluginIndex().suggestions(pluginName, 3);
+            return "Plugin not found: " + pluginName + "."
+                + (suggestions.isEmpty() ? "" : " Closest names: " + String.join(", ", suggestions) + ".")
+                + " Use list_plugins to see available plugins.";
+        }
+        if (resolution.isAmbiguous())
+        {
+            return "Ambiguous plugin name '" + pluginName + "'. Candidates: " + resolution.describeCandidates()
+                + ". Call again with the exact plugin name.";
         }
         return null;
     }
+
+    /**
+     * Like {@link #describeUnresolved}, but for tools that change state: a loose match is
+     * reported with its candidates instead of being acted on, so the model confirms the name.
+     */
+    private String describeUnconfirmed(String pluginName, PluginIndex.Resolution resolution)
+    {
+        String unresolved = describeUnresolved(pluginName, resolution);
+        if (unresolved != null || resolution.isConfident())
+        {
+            return unresolved;
+        }
+        return "No close match for plugin name '" + pluginName + "'. Candidates: " + resolution.describeCandidates()
+            + ". Call again with the exact plugin name to confirm.";
+    }
+
+    /**
+     * A note on which plugin a fuzzy name was taken to mean, appended to success messages.
+     */
+    private static String matchNote(String pluginName, PluginIndex.Candidate match)
+    {
+        if (match.getScore() >= 1.0)
+        {
+            return "";
+        }
+        return " (matched '" + pluginName + "' with " + Math.round(match.getScore() * 100) + "% confidence)";
+    }
 }
@@ -0,0 +1,148 @@
+package com.runeliteagent;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rolling latency and token totals across the turns of a session. Percentiles are taken over
+ * the most recent {@link #WINDOW} turns (and API calls); token and tool totals cover the whole
+ * session.
+ */
+public class SessionMetrics
+{
+    static final int WINDOW = 100;
+
+    private final Window turnMillis = new Window(WINDOW);
+    private final Window firstTokenMillis = new Window(WINDOW);
+    private final Window apiCallMillis = new Window(WINDOW * 2);
+    private final Map<String, long[]> toolTotals = new TreeMap<>();
+    private int turns;
+    private long inputTokens;
+    private long outputTokens;
+    private long cacheReadTokens;
+    private long cacheCreationTokens;
+
+    public synchronized void record(TurnTrace trace)
+    {
+        turns++;
+        turnMillis.add(trace.getTotalMillis());
+        long ttft = trace.getTimeToFirstTokenMillis();
+        if (ttft >= 0)
+        {
+            firstTokenMillis.add(ttft);
+        }
+        for (long millis : trace.getApiCallMillis())
+        {
+            apiCallMillis.add(millis);
+        }
+        for (TurnTrace.ToolTiming tool : trace.getToolTimings())
+        {
+            long[] totals = toolTotals.computeIfAbsent(tool.getName(), k -> new long[2]);
+            totals[0]++;
+            totals[1] += tool.getMillis();
+        }
+        inputTokens += trace.getInputTokens();
+        outputTokens += trace.getOutputTokens();
+        cacheReadTokens += trace.getCacheReadTokens();
+        cacheCreationTokens += trace.getCacheCreationTokens();
+    }
+
+    /**
+     * One-line latency summary for the log.
+     */
+    public synchronized String summaryLine()
+    {
+        return "turns=" + turns
+            + " latency p50=" + turnMillis.percentile(50) + "ms p95=" + turnMillis.percentile(95) + "ms"
+            + " ttft p50=" + firstTokenMillis.percentile(50) + "ms p95=" + firstTokenMillis.percentile(95) + "ms"
+            + " tokens in=" + (inputTokens + cacheReadTokens + cacheCreationTokens) + " out=" + outputTokens;
+    }
+
+    /**
+     * The get_agent_metrics tool result.
+     */
+    public synchronized String render()
+    {
+        if (turns == 0)
+        {
+            return "No completed turns yet in this session.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Agent metrics for this session (").append(turns).append(turns == 1 ? " turn" : " turns");
+        sb.append("; percentiles over the last ").append(turnMillis.size()).append("):\n");
+        appendPercentiles(sb, "Turn latency", turnMillis);
+        appendPercentiles(sb, "Time to first token", firstTokenMillis);
+        appendPercentiles(sb, "API call latency", apiCallMillis);
+        sb.append("Tokens: ").append(inputTokens + cacheReadTokens + cacheCreationTokens).append(" prompt (")
+            .append(cacheReadTokens).append(" cache read, ")
+            .append(cacheCreationTokens).append(" cache write), ")
+            .append(outputTokens).append(" output\n");
+
+        if (!toolTotals.isEmpty())
+        {
+            sb.append("Tools:\n");
+            for (Map.Entry<String, long[]> entry : toolTotals.entrySet())
+            {
+                long[] totals = entry.getValue();
+                sb.append("  ").append(entry.getKey()).append(": ").append(totals[0])
+                    .append(totals[0] == 1 ? " call" : " calls")
+                    .append(", avg ").append(totals[1] / totals[0]).append("ms\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendPercentiles(StringBuilder sb, String label, Window window)
+    {
+        if (window.size() == 0)
+        {
+            return;
+        }
+        sb.append(label).append(": p50 ").append(TurnTrace.seconds(window.percentile(50)))
+            .append(", p95 ").append(TurnTrace.seconds(window.percentile(95))).append('\n');
+    }
+
+    /**
+     * Ring buffer of the most recent samples.
+     */
+    private static final class Window
+    {
+        private final long[] samples;
+        private int count;
+        private int next;
+
+        Window(int capacity)
+        {
+            samples = new long[capacity];
+        }
+
+        void add(long sample)
+        {
+            samples[next] = sample;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        int size()
+        {
+            return count;
+        }
+
+        /**
+         * Nearest-rank percentile, or 0 when empty.
+         */
+        long percentile(int p)
+        {
+            if (count == 0)
+            {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(p / 100.0 * count);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
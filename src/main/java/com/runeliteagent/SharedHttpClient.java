@@ -0,0 +1,165 @@
+package com.runeliteagent;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * The single HTTP stack used by the plugin, derived from RuneLite's injected OkHttpClient.
+ * <p>
+ * ClaudeApiClient and OsrsWikiClient share its connection pool, so connections to
+ * api.anthropic.com and the wiki hosts are reused (and multiplexed over HTTP/2) across both.
+ * <p>
+ * Both clients make synchronous {@code execute()} calls on their own threads, which the OkHttp
+ * dispatcher's limits do not apply to. {@link HostConcurrencyLimiter} is the only cap on
+ * concurrent requests. The plugin's own dispatcher just runs the warm-up requests, and keeps
+ * {@link #shutdown} from cancelling calls on RuneLite's dispatcher.
+ */
+@Slf4j
+public class SharedHttpClient
+{
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_REQUESTS_PER_HOST = 6;
+    private static final int WARM_UP_THREADS = 2;
+
+    private final OkHttpClient httpClient;
+    private final ExecutorService dispatcherExecutor;
+    private final ConnectionPool connectionPool;
+    private final AtomicBoolean warmedUp = new AtomicBoolean();
+
+    public SharedHttpClient(OkHttpClient runeLiteClient)
+    {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(WARM_UP_THREADS, WARM_UP_THREADS, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "claude-agent-http-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        this.dispatcherExecutor = executor;
+
+        Dispatcher dispatcher = new Dispatcher(dispatcherExecutor);
+        this.connectionPool = new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+
+        this.httpClient = runeLiteClient.newBuilder()
+            .connectionPool(connectionPool)
+            .dispatcher(dispatcher)
+            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .addInterceptor(new HostConcurrencyLimiter(MAX_REQUESTS_PER_HOST))
+            .connectTimeout(30, TimeUnit.SECONDS)
+            .readTimeout(30, TimeUnit.SECONDS)
+            .writeTimeout(30, TimeUnit.SECONDS)
+            .build();
+    }
+
+    public OkHttpClient getClient()
+    {
+        return httpClient;
+    }
+
+    /**
+     * Open connections to the given endpoints in the background so the first real request does not
+     * pay for DNS, TCP and TLS setup. Only the first call has any effect.
+     */
+    public void warmUp(List<String> urls)
+    {
+        if (!warmedUp.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        for (String url : urls)
+        {
+            Request request = new Request.Builder()
+                .url(url)
+                .head()
+                .build();
+
+            httpClient.newCall(request).enqueue(new Callback()
+            {
+                @Override
+                public void onFailure(Call call, IOException e)
+                {
+                    log.debug("Connection warm-up failed for {}: {}", url, e.getMessage());
+                }
+
+                @Override
+                public void onResponse(Call call, Response response)
+                {
+                    // Any status will do; the connection is now pooled
+                    response.close();
+                }
+            });
+        }
+    }
+
+    public void shutdown()
+    {
+        httpClient.dispatcher().cancelAll();
+        dispatcherExecutor.shutdown();
+        connectionPool.evictAll();
+    }
+
+    /**
+     * Caps in-flight requests per host for every call through the client, synchronous or not.
+     * A permit is held until the response headers arrive, so a streaming (SSE) body that is still
+     * being read does not count against the cap.
+     */
+    private static class HostConcurrencyLimiter implements Interceptor
+    {
+        private final int permitsPerHost;
+        private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+        HostConcurrencyLimiter(int permitsPerHost)
+        {
+            this.permitsPerHost = permitsPerHost;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException
+        {
+            Semaphore permits = hostPermits.computeIfAbsent(chain.request().url().host(),
+                host -> new Semaphore(permitsPerHost));
+            try
+            {
+                permits.acquire();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a connection slot");
+            }
+            try
+            {
+                return chain.proceed(chain.request());
+            }
+            finally
+            {
+                // The response body may still be streaming, but the request has been issued
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.runeliteagent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache of rendered results for read-only RuneLite tools. There is no expiry: entries are
+ * removed by the plugin's EventBus handlers when the state they were rendered from changes.
+ * <p>
+ * A result computed while an invalidation was happening is returned but not stored, so a
+ * read racing a change can never leave a stale entry behind.
+ */
+public class ToolResultCache
+{
+    private final Map<String, String> results;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ToolResultCache()
+    {
+        this(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * For tests that need to interleave an invalidation with the cache's own map operations.
+     */
+    ToolResultCache(Map<String, String> results)
+    {
+        this.results = results;
+    }
+
+    public String get(String key, Supplier<String> compute)
+    {
+        String cached = results.get(key);
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        long before = generation.get();
+        String result = compute.get();
+        if (generation.get() == before)
+        {
+            results.put(key, result);
+            // An invalidation between the check and the put would otherwise miss this entry.
+            // Invalidations bump the generation before removing, so either it removes the entry
+            // or this check sees the new generation.
+            if (generation.get() != before)
+            {
+                results.remove(key, result);
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(String key)
+    {
+        generation.incrementAndGet();
+        results.remove(key);
+    }
+
+    public void invalidateIf(Predicate<String> keyFilter)
+    {
+        generation.incrementAndGet();
+        results.keySet().removeIf(keyFilter);
+    }
+
+    public void invalidateAll()
+    {
+        generation.incrementAndGet();
+        results.clear();
+    }
+}
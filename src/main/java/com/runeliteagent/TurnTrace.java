@@ -0,0 +1,203 @@
+package com.runeliteagent;
+
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing and token usage of one user turn: time to first token, each Messages API call with
+ * its {@code usage}, and each tool execution. Tools record from the tool pool concurrently, so
+ * recording is synchronized.
+ */
+public class TurnTrace
+{
+    private final long startNanos = System.nanoTime();
+    private long firstTokenNanos = -1;
+    private long endNanos = -1;
+    private final List<Long> apiCallMillis = new ArrayList<>();
+    private final List<ToolTiming> toolTimings = new ArrayList<>();
+    private long inputTokens;
+    private long outputTokens;
+    private long cacheReadTokens;
+    private long cacheCreationTokens;
+
+    /**
+     * Note that something became visible to the user; only the first call counts.
+     */
+    synchronized void markFirstToken()
+    {
+        if (firstTokenNanos < 0)
+        {
+            firstTokenNanos = System.nanoTime();
+        }
+    }
+
+    synchronized void recordApiCall(long elapsedNanos, JsonObject usage)
+    {
+        apiCallMillis.add(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        inputTokens += ClaudeApiClient.usageCount(usage, "input_tokens");
+        outputTokens += ClaudeApiClient.usageCount(usage, "output_tokens");
+        cacheReadTokens += ClaudeApiClient.usageCount(usage, "cache_read_input_tokens");
+        cacheCreationTokens += ClaudeApiClient.usageCount(usage, "cache_creation_input_tokens");
+    }
+
+    synchronized void recordTool(String name, long elapsedNanos)
+    {
+        toolTimings.add(new ToolTiming(name, TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+    }
+
+    synchronized void finish()
+    {
+        if (endNanos < 0)
+        {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    public synchronized long getTotalMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis((endNanos >= 0 ? endNanos : System.nanoTime()) - startNanos);
+    }
+
+    /**
+     * @return milliseconds until the first text or tool line was shown, or -1 if nothing was
+     */
+    public synchronized long getTimeToFirstTokenMillis()
+    {
+        return firstTokenNanos >= 0 ? TimeUnit.NANOSECONDS.toMillis(firstTokenNanos - startNanos) : -1;
+    }
+
+    public synchronized int getIterations()
+    {
+        return apiCallMillis.size();
+    }
+
+    public synchronized List<Long> getApiCallMillis()
+    {
+        return new ArrayList<>(apiCallMillis);
+    }
+
+    public synchronized List<ToolTiming> getToolTimings()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(toolTimings));
+    }
+
+    /**
+     * @return all prompt tokens, whether uncached, read from the cache or written to it
+     */
+    public synchronized long getPromptTokens()
+    {
+        return inputTokens + cacheReadTokens + cacheCreationTokens;
+    }
+
+    public synchronized long getInputTokens()
+    {
+        return inputTokens;
+    }
+
+    public synchronized long getOutputTokens()
+    {
+        return outputTokens;
+    }
+
+    public synchronized long getCacheReadTokens()
+    {
+        return cacheReadTokens;
+    }
+
+    public synchronized long getCacheCreationTokens()
+    {
+        return cacheCreationTokens;
+    }
+
+    /**
+     * Compact one-line summary for the panel, e.g.
+     * "4.2s · first token 0.8s · 2 calls · 3 tools · 5.1k in (3.9k cached) / 412 out".
+     */
+    public synchronized String footer()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(seconds(getTotalMillis()));
+        long ttft = getTimeToFirstTokenMillis();
+        if (ttft >= 0)
+        {
+            sb.append(" · first token ").append(seconds(ttft));
+        }
+        sb.append(" · ").append(apiCallMillis.size()).append(apiCallMillis.size() == 1 ? " call" : " calls");
+        if (!toolTimings.isEmpty())
+        {
+            sb.append(" · ").append(toolTimings.size()).append(toolTimings.size() == 1 ? " tool" : " tools");
+        }
+        sb.append(" · ").append(tokens(getPromptTokens())).append(" in");
+        if (cacheReadTokens > 0)
+        {
+            sb.append(" (").append(tokens(cacheReadTokens)).append(" cached)");
+        }
+        sb.append(" / ").append(tokens(outputTokens)).append(" out");
+        return sb.toString();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("total=").append(getTotalMillis()).append("ms");
+        sb.append(" ttft=").append(getTimeToFirstTokenMillis()).append("ms");
+        sb.append(" iterations=").append(apiCallMillis.size());
+        sb.append(" api=").append(apiCallMillis);
+        sb.append(" tools=[");
+        for (int i = 0; i < toolTimings.size(); i++)
+        {
+            if (i > 0)
+            {
+                sb.append(", ");
+            }
+            sb.append(toolTimings.get(i).getName()).append(' ').append(toolTimings.get(i).getMillis()).append("ms");
+        }
+        sb.append("] tokens in=").append(inputTokens);
+        sb.append(" out=").append(outputTokens);
+        sb.append(" cache_read=").append(cacheReadTokens);
+        sb.append(" cache_write=").append(cacheCreationTokens);
+        return sb.toString();
+    }
+
+    static String seconds(long millis)
+    {
+        long tenths = (millis + 50) / 100;
+        return tenths / 10 + "." + tenths % 10 + "s";
+    }
+
+    static String tokens(long count)
+    {
+        if (count < 1000)
+        {
+            return Long.toString(count);
+        }
+        long hundreds = (count + 50) / 100;
+        return hundreds / 10 + "." + hundreds % 10 + "k";
+    }
+
+    public static final class ToolTiming
+    {
+        private final String name;
+        private final long millis;
+
+        ToolTiming(String name, long millis)
+        {
+            this.name = name;
+            this.millis = millis;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public long getMillis()
+        {
+            return millis;
+        }
+    }
+}
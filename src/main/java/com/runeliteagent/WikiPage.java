@@ -0,0 +1,163 @@
+package com.runeliteagent;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a MediaWiki {@code action=query} response for {@code prop=extracts} and/or
+ * {@code prop=revisions}: its title, plaintext extract and current revision id, or a marker
+ * that the page does not exist.
+ */
+public final class WikiPage
+{
+    public static final long NO_REVISION = -1;
+
+    private final String title;
+    private final String extract;
+    private final long revisionId;
+    private final boolean missing;
+
+    WikiPage(String title, String extract, long revisionId, boolean missing)
+    {
+        this.title = title;
+        this.extract = extract;
+        this.revisionId = revisionId;
+        this.missing = missing;
+    }
+
+    /**
+     * Stream the {@code query.pages} object of a response, keeping only each page's title,
+     * extract, latest revision id and missing flag.
+     */
+    public static List<WikiPage> parse(JsonReader reader) throws IOException
+    {
+        List<WikiPage> pages = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            if (!"query".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_OBJECT)
+            {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                if (!"pages".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_OBJECT)
+                {
+                    reader.skipValue();
+                    continue;
+                }
+
+                reader.beginObject();
+                while (reader.hasNext())
+                {
+                    // Missing pages are keyed by negative ids and carry a "missing" field
+                    boolean missing = reader.nextName().startsWith("-");
+                    pages.add(parsePage(reader, missing));
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+        return pages;
+    }
+
+    private static WikiPage parsePage(JsonReader reader, boolean missing) throws IOException
+    {
+        String title = null;
+        String extract = null;
+        long revisionId = NO_REVISION;
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            String field = reader.nextName();
+            if ("title".equals(field) && reader.peek() == JsonToken.STRING)
+            {
+                title = reader.nextString();
+            }
+            else if ("extract".equals(field) && reader.peek() == JsonToken.STRING)
+            {
+                extract = reader.nextString();
+            }
+            else if ("revisions".equals(field) && reader.peek() == JsonToken.BEGIN_ARRAY)
+            {
+                revisionId = parseRevisionId(reader);
+            }
+            else
+            {
+                if ("missing".equals(field) || "invalid".equals(field))
+                {
+                    missing = true;
+                }
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new WikiPage(title, extract, revisionId, missing);
+    }
+
+    /**
+     * The {@code revid} of the first entry of a {@code revisions} array, which with
+     * {@code rvprop=ids} and no other revision parameters is the latest one.
+     */
+    private static long parseRevisionId(JsonReader reader) throws IOException
+    {
+        long revisionId = NO_REVISION;
+        reader.beginArray();
+        while (reader.hasNext())
+        {
+            if (revisionId != NO_REVISION || reader.peek() != JsonToken.BEGIN_OBJECT)
+            {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                if ("revid".equals(reader.nextName()) && reader.peek() == JsonToken.NUMBER)
+                {
+                    revisionId = reader.nextLong();
+                }
+                else
+                {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+        return revisionId;
+    }
+
+    public String getTitle()
+    {
+        return title;
+    }
+
+    /**
+     * @return the plaintext extract, or null if the response had none
+     */
+    public String getExtract()
+    {
+        return extract;
+    }
+
+    /**
+     * @return the latest revision id, or {@link #NO_REVISION} if revisions were not requested
+     */
+    public long getRevisionId()
+    {
+        return revisionId;
+    }
+
+    public boolean isMissing()
+    {
+        return missing;
+    }
+}
@@ -0,0 +1,317 @@
+package com.runeliteagent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Two-tier store of fetched wiki page extracts: a small in-memory LRU in front of gzip records
+ * on disk, one file per normalized title. Each entry carries the revision id it was fetched at,
+ * so callers can revalidate it with a revision check instead of downloading the page again.
+ * <p>
+ * Entries loaded from disk start out unchecked; an entry counts as fresh for
+ * {@link #REVALIDATE_AFTER_MILLIS} after it was fetched or last revalidated. The disk tier is
+ * capped at {@link #MAX_DISK_BYTES}, dropping the least recently used records first.
+ */
+@Slf4j
+public class WikiPageStore
+{
+    static final long REVALIDATE_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    static final long MAX_DISK_BYTES = 32L * 1024 * 1024;
+    private static final int MEMORY_ENTRIES = 32;
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".page.gz";
+
+    private final File directory;
+    private final Map<String, Entry> memory = new LinkedHashMap<String, Entry>(MEMORY_ENTRIES, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, WikiPageStore.Entry> eldest)
+        {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+    // Scanned lazily on the first write, so construction does no disk I/O
+    private long diskBytes = -1;
+
+    public WikiPageStore(File directory)
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * Look up a page by title, from memory or else from disk.
+     *
+     * @return the stored entry, or null if the page has not been fetched before
+     */
+    public Entry get(String title)
+    {
+        String key = normalizeTitle(title);
+        synchronized (this)
+        {
+            Entry entry = memory.get(key);
+            if (entry != null)
+            {
+                return entry;
+            }
+        }
+
+        Entry entry = read(key);
+        if (entry != null)
+        {
+            synchronized (this)
+            {
+                memory.putIfAbsent(key, entry);
+                entry = memory.get(key);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Store a freshly fetched page under the title it was requested by.
+     */
+    public Entry put(String title, String pageTitle, long revisionId, String extract)
+    {
+        String key = normalizeTitle(title);
+        Entry entry = new Entry(pageTitle, revisionId, extract);
+        entry.markChecked();
+        synchronized (this)
+        {
+            memory.put(key, entry);
+        }
+        write(key, entry);
+        return entry;
+    }
+
+    /**
+     * Visit every record on disk, most recently used first, with its page title and extract.
+     * Unreadable records are skipped. Does disk I/O; call it off the client and EDT threads.
+     */
+    public void forEachStored(BiConsumer<String, String> visitor)
+    {
+        File[] records = listRecords();
+        Arrays.sort(records, Comparator.comparingLong(File::lastModified).reversed());
+        for (File record : records)
+        {
+            try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(record)))))
+            {
+                if (in.readInt() != FORMAT_VERSION)
+                {
+                    continue;
+                }
+                in.readUTF();
+                String pageTitle = in.readUTF();
+                in.readLong();
+                byte[] extract = new byte[in.readInt()];
+                in.readFully(extract);
+                visitor.accept(pageTitle, new String(extract, StandardCharsets.UTF_8));
+            }
+            catch (IOException e)
+            {
+                log.debug("Skipping unreadable wiki page record {}", record.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * MediaWiki title normalization: underscores and runs of whitespace become single spaces,
+     * and the first letter is upper case.
+     */
+    static String normalizeTitle(String title)
+    {
+        String normalized = title.replace('_', ' ').trim().replaceAll("\\s+", " ");
+        if (normalized.isEmpty())
+        {
+            return normalized;
+        }
+        return normalized.substring(0, 1).toUpperCase(Locale.ROOT) + normalized.substring(1);
+    }
+
+    private Entry read(String key)
+    {
+        File file = fileFor(key);
+        if (!file.isFile())
+        {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)))))
+        {
+            if (in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF()))
+            {
+                return null;
+            }
+            String pageTitle = in.readUTF();
+            long revisionId = in.readLong();
+            byte[] extract = new byte[in.readInt()];
+            in.readFully(extract);
+            // Keeps the disk tier in least-recently-used order for pruning
+            file.setLastModified(System.currentTimeMillis());
+            return new Entry(pageTitle, revisionId, new String(extract, StandardCharsets.UTF_8));
+        }
+        catch (IOException e)
+        {
+            log.warn("Discarding unreadable wiki page record {}", file.getName(), e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private synchronized void write(String key, Entry entry)
+    {
+        File file = fileFor(key);
+        try
+        {
+            Files.createDirectories(directory.toPath());
+            if (diskBytes < 0)
+            {
+                diskBytes = 0;
+                for (File existing : listRecords())
+                {
+                    diskBytes += existing.length();
+                }
+            }
+
+            File tmp = new File(directory, file.getName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))))
+            {
+                byte[] extract = entry.getExtract().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                out.writeUTF(entry.getTitle());
+                out.writeLong(entry.getRevisionId());
+                out.writeInt(extract.length);
+                out.write(extract);
+            }
+            long replaced = file.length();
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            diskBytes += file.length() - replaced;
+
+            if (diskBytes > MAX_DISK_BYTES)
+            {
+                prune();
+            }
+        }
+        catch (IOException e)
+        {
+            // The page is still served from memory; it just won't survive a restart
+            log.warn("Failed to store wiki page {}", entry.getTitle(), e);
+        }
+    }
+
+    /**
+     * Delete the least recently used records until the store is back under three quarters of
+     * its budget.
+     */
+    private void prune()
+    {
+        File[] records = listRecords();
+        Arrays.sort(records, Comparator.comparingLong(File::lastModified));
+        for (File record : records)
+        {
+            if (diskBytes <= MAX_DISK_BYTES * 3 / 4)
+            {
+                break;
+            }
+            long length = record.length();
+            if (record.delete())
+            {
+                diskBytes -= length;
+            }
+        }
+        log.debug("Pruned wiki page store to {} bytes", diskBytes);
+    }
+
+    private File[] listRecords()
+    {
+        File[] records = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        return records != null ? records : new File[0];
+    }
+
+    private File fileFor(String key)
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2 + SUFFIX.length());
+            for (byte b : digest)
+            {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return new File(directory, name.append(SUFFIX).toString());
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A stored page. The extract is the full plaintext, before any truncation for the model.
+     */
+    public static final class Entry
+    {
+        private final String title;
+        private final long revisionId;
+        private final String extract;
+        private volatile long checkedAtMillis;
+
+        Entry(String title, long revisionId, String extract)
+        {
+            this.title = title;
+            this.revisionId = revisionId;
+            this.extract = extract;
+        }
+
+        public String getTitle()
+        {
+            return title;
+        }
+
+        public long getRevisionId()
+        {
+            return revisionId;
+        }
+
+        public String getExtract()
+        {
+            return extract;
+        }
+
+        /**
+         * @return true if the entry was fetched or revalidated within the revalidation window
+         */
+        public boolean isFresh()
+        {
+            return System.currentTimeMillis() - checkedAtMillis < REVALIDATE_AFTER_MILLIS;
+        }
+
+        /**
+         * Record that the upstream revision still matches.
+         */
+        public void markChecked()
+        {
+            checkedAtMillis = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package com.runeliteagent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory BM25 full-text index over the wiki pages the plugin has fetched, so searches about
+ * pages already seen can be answered without a request.
+ * <p>
+ * Title, heading and body terms are indexed with decreasing weight. Pages are added on a
+ * low-priority background thread; adding a title again replaces the earlier version. When the
+ * estimated size exceeds the budget, the least recently added pages are dropped. Searches run
+ * on the caller's thread under a read lock.
+ */
+@Slf4j
+public class WikiSearchIndex
+{
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float HEADING_WEIGHT = 2f;
+    private static final float BODY_WEIGHT = 1f;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int SNIPPET_CHARS = 200;
+    // Rough per-page and per-posting overheads for the size estimate
+    private static final long DOCUMENT_OVERHEAD_BYTES = 128;
+    private static final long POSTING_BYTES = 16;
+    private static final Set<String> STOP_WORDS = new LinkedHashSet<>(Arrays.asList(
+        "a", "an", "and", "are", "as", "at", "be", "by", "can", "do", "does", "for", "from", "how", "i",
+        "in", "is", "it", "much", "my", "of", "on", "or", "the", "to", "what", "when", "where", "which",
+        "who", "why", "with"));
+
+    private final IntSupplier budgetMegabytes;
+    private final ExecutorService indexer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock; documents are only ever appended, removal leaves a tombstone until compaction
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<String, Integer> documentsByTitle = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private int liveDocuments;
+    private double totalLength;
+    private long estimatedBytes;
+
+    /**
+     * @param budgetMegabytes the size budget, read on every change; 0 disables the index
+     */
+    public WikiSearchIndex(IntSupplier budgetMegabytes)
+    {
+        this.budgetMegabytes = budgetMegabytes;
+        this.indexer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "claude-agent-wiki-index");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Index a page in the background, replacing any earlier version with the same title.
+     */
+    public void add(String title, String extract)
+    {
+        if (budgetBytes() > 0 && !indexer.isShutdown())
+        {
+            indexer.execute(() -> addNow(title, extract));
+        }
+    }
+
+    /**
+     * Index every page in the store in the background, most recently used first, until the
+     * budget is full.
+     */
+    public void load(WikiPageStore store)
+    {
+        if (budgetBytes() <= 0 || indexer.isShutdown())
+        {
+            return;
+        }
+        indexer.execute(() -> {
+            int[] loaded = {0};
+            store.forEachStored((title, extract) -> {
+                if (estimatedBytes + estimateBytes(title, extract) <= budgetBytes())
+                {
+                    addNow(title, extract);
+                    loaded[0]++;
+                }
+            });
+            log.debug("Indexed {} stored wiki pages ({} bytes)", loaded[0], estimatedBytes);
+        });
+    }
+
+    /**
+     * Rank indexed pages against a query with BM25.
+     *
+     * @return up to limit hits, best first
+     */
+    public List<Hit> search(String query, int limit)
+    {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || budgetBytes() <= 0)
+        {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try
+        {
+            if (liveDocuments == 0)
+            {
+                return Collections.emptyList();
+            }
+
+            float[] scores = new float[documents.size()];
+            int[] matchedTerms = new int[documents.size()];
+            double averageLength = totalLength / liveDocuments;
+            for (String term : terms)
+            {
+                Postings list = postings.get(term);
+                if (list == null)
+                {
+                    continue;
+                }
+                int frequency = 0;
+                for (int i = 0; i < list.size; i++)
+                {
+                    if (!documents.get(list.documents[i]).removed)
+                    {
+                        frequency++;
+                    }
+                }
+                double idf = Math.log(1 + (liveDocuments - frequency + 0.5) / (frequency + 0.5));
+                for (int i = 0; i < list.size; i++)
+                {
+                    int doc = list.documents[i];
+                    Document document = documents.get(doc);
+                    if (document.removed)
+                    {
+                        continue;
+                    }
+                    float tf = list.weights[i];
+                    double norm = K1 * (1 - B + B * document.length / averageLength);
+                    scores[doc] += (float) (idf * tf * (K1 + 1) / (tf + norm));
+                    matchedTerms[doc]++;
+                }
+            }
+
+            List<Integer> ranked = new ArrayList<>();
+            for (int doc = 0; doc < scores.length; doc++)
+            {
+                if (scores[doc] > 0)
+                {
+                    ranked.add(doc);
+                }
+            }
+            ranked.sort((a, b) -> Float.compare(scores[b], scores[a]));
+
+            List<Hit> hits = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (int doc : ranked.subList(0, Math.min(limit, ranked.size())))
+            {
+                Document document = documents.get(doc);
+                Set<String> titleTerms = new LinkedHashSet<>(tokenize(document.title));
+                boolean titleMatch = terms.stream().anyMatch(titleTerms::contains);
+                hits.add(new Hit(document.title, snippet(document.extract, terms), scores[doc],
+                    matchedTerms[doc] == terms.size(), titleMatch));
+            }
+            return hits;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return liveDocuments;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void shutdown()
+    {
+        indexer.shutdownNow();
+    }
+
+    private void addNow(String title, String extract)
+    {
+        Map<String, Float> weights = new HashMap<>();
+        float length = 0;
+        for (String term : tokenize(title))
+        {
+            weights.merge(term, TITLE_WEIGHT, Float::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String line : extract.split("\n"))
+        {
+            String trimmed = line.trim();
+            boolean heading = trimmed.startsWith("=") && trimmed.endsWith("=");
+            float weight = heading ? HEADING_WEIGHT : BODY_WEIGHT;
+            for (String term : tokenize(trimmed))
+            {
+                weights.merge(term, weight, Float::sum);
+                length += weight;
+            }
+        }
+
+        lock.writeLock().lock();
+        try
+        {
+            Integer previous = documentsByTitle.get(title);
+            if (previous != null)
+            {
+                remove(previous);
+            }
+
+            int doc = documents.size();
+            Document document = new Document(title, extract, length, estimateBytes(title, extract) + weights.size() * POSTING_BYTES);
+            documents.add(document);
+            documentsByTitle.put(title, doc);
+            for (Map.Entry<String, Float> entry : weights.entrySet())
+            {
+                postings.computeIfAbsent(entry.getKey(), k -> new Postings()).add(doc, entry.getValue());
+            }
+            liveDocuments++;
+            totalLength += length;
+            estimatedBytes += document.bytes;
+
+            long budget = budgetBytes();
+            for (int oldest = 0; estimatedBytes > budget && oldest < documents.size(); oldest++)
+            {
+                if (!documents.get(oldest).removed)
+                {
+                    remove(oldest);
+                }
+            }
+            if (documents.size() - liveDocuments > Math.max(16, liveDocuments / 4))
+            {
+                compact();
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(int doc)
+    {
+        Document document = documents.get(doc);
+        document.removed = true;
+        documentsByTitle.remove(document.title, doc);
+        liveDocuments--;
+        totalLength -= document.length;
+        estimatedBytes -= document.bytes;
+    }
+
+    /**
+     * Drop tombstoned documents and renumber the rest, keeping their order.
+     */
+    private void compact()
+    {
+        int[] renumbered = new int[documents.size()];
+        List<Document> live = new ArrayList<>(liveDocuments);
+        for (int doc = 0; doc < documents.size(); doc++)
+        {
+            Document document = documents.get(doc);
+            renumbered[doc] = document.removed ? -1 : live.size();
+            if (!document.removed)
+            {
+                live.add(document);
+            }
+        }
+
+        postings.values().removeIf(list -> list.renumber(renumbered) == 0);
+        documents.clear();
+        documents.addAll(live);
+        documentsByTitle.clear();
+        for (int doc = 0; doc < documents.size(); doc++)
+        {
+            documentsByTitle.put(documents.get(doc).title, doc);
+        }
+    }
+
+    private long budgetBytes()
+    {
+        return Math.max(0, budgetMegabytes.getAsInt()) * 1024L * 1024L;
+    }
+
+    private static long estimateBytes(String title, String extract)
+    {
+        return DOCUMENT_OVERHEAD_BYTES + 2L * (title.length() + extract.length());
+    }
+
+    /**
+     * The line of the extract matching the most distinct query terms, cut to about
+     * {@link #SNIPPET_CHARS} characters around the first match.
+     */
+    static String snippet(String extract, List<String> terms)
+    {
+        String best = null;
+        int bestMatches = 0;
+        for (String line : extract.split("\n"))
+        {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("="))
+            {
+                continue;
+            }
+            if (best == null)
+            {
+                best = trimmed;
+            }
+            Set<String> lineTerms = new LinkedHashSet<>(tokenize(trimmed));
+            int matches = 0;
+            for (String term : terms)
+            {
+                if (lineTerms.contains(term))
+                {
+                    matches++;
+                }
+            }
+            if (matches > bestMatches)
+            {
+                best = trimmed;
+                bestMatches = matches;
+            }
+        }
+        if (best == null)
+        {
+            return "";
+        }
+        if (best.length() <= SNIPPET_CHARS)
+        {
+            return best;
+        }
+
+        String lower = best.toLowerCase(Locale.ROOT);
+        int first = best.length();
+        for (String term : terms)
+        {
+            int at = lower.indexOf(term);
+            if (at >= 0)
+            {
+                first = Math.min(first, at);
+            }
+        }
+        int start = first == best.length() ? 0 : Math.max(0, first - SNIPPET_CHARS / 4);
+        int end = Math.min(best.length(), start + SNIPPET_CHARS);
+        return (start > 0 ? "..." : "") + best.substring(start, end) + (end < best.length() ? "..." : "");
+    }
+
+    /**
+     * Lower-case letter/digit runs, without stop words or single letters, with a plain
+     * trailing "s" removed so plurals match their singular.
+     */
+    static List<String> tokenize(String text)
+    {
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++)
+        {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0)
+            {
+                start = i;
+            }
+            else if (!wordChar && start >= 0)
+            {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                start = -1;
+                if ((term.length() == 1 && !Character.isDigit(term.charAt(0))) || STOP_WORDS.contains(term))
+                {
+                    continue;
+                }
+                if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss"))
+                {
+                    term = term.substring(0, term.length() - 1);
+                }
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * A ranked page. A strong match contains every query term and at least one of them in its
+     * title; weaker local results are worth a remote search.
+     */
+    public static final class Hit
+    {
+        private final String title;
+        private final String snippet;
+        private final float score;
+        private final boolean allTermsMatched;
+        private final boolean titleMatched;
+
+        Hit(String title, String snippet, float score, boolean allTermsMatched, boolean titleMatched)
+        {
+            this.title = title;
+            this.snippet = snippet;
+            this.score = score;
+            this.allTermsMatched = allTermsMatched;
+            this.titleMatched = titleMatched;
+        }
+
+        public String getTitle()
+        {
+            return title;
+        }
+
+        public String getSnippet()
+        {
+            return snippet;
+        }
+
+        public float getScore()
+        {
+            return score;
+        }
+
+        public boolean isStrongMatch()
+        {
+            return allTermsMatched && titleMatched;
+        }
+    }
+
+    private static final class Document
+    {
+        final String title;
+        final String extract;
+        final float length;
+        final long bytes;
+        boolean removed;
+
+        Document(String title, String extract, float length, long bytes)
+        {
+            this.title = title;
+            this.extract = extract;
+            this.length = length;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Parallel arrays of document numbers and weighted term frequencies, in document order.
+     */
+    private static final class Postings
+    {
+        int[] documents = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(int doc, float weight)
+        {
+            if (size == documents.length)
+            {
+                documents = Arrays.copyOf(documents, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            documents[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        /**
+         * Apply a renumbering, dropping documents mapped to -1.
+         *
+         * @return the remaining size
+         */
+        int renumber(int[] renumbered)
+        {
+            int kept = 0;
+            for (int i = 0; i < size; i++)
+            {
+                int doc = renumbered[documents[i]];
+                if (doc >= 0)
+                {
+                    documents[kept] = doc;
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return size;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.runeliteagent;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One hit of a MediaWiki {@code list=search} response: its title and cleaned snippet.
+ */
+public final class WikiSearchResult
+{
+    private final String title;
+    private final String snippet;
+
+    WikiSearchResult(String title, String snippet)
+    {
+        this.title = title;
+        this.snippet = snippet;
+    }
+
+    /**
+     * Stream the {@code query.search} array of a response, keeping only each hit's title and
+     * snippet.
+     */
+    public static List<WikiSearchResult> parse(JsonReader reader) throws IOException
+    {
+        List<WikiSearchResult> results = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            if (!"query".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_OBJECT)
+            {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                if (!"search".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY)
+                {
+                    reader.skipValue();
+                    continue;
+                }
+
+                reader.beginArray();
+                while (reader.hasNext())
+                {
+                    WikiSearchResult result = parseResult(reader);
+                    if (result != null)
+                    {
+                        results.add(result);
+                    }
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+        return results;
+    }
+
+    private static WikiSearchResult parseResult(JsonReader reader) throws IOException
+    {
+        String title = null;
+        String snippet = "";
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            String field = reader.nextName();
+            if ("title".equals(field) && reader.peek() == JsonToken.STRING)
+            {
+                title = reader.nextString();
+            }
+            else if ("snippet".equals(field) && reader.peek() == JsonToken.STRING)
+            {
+                snippet = OsrsWikiClient.stripSnippetHtml(reader.nextString());
+            }
+            else
+            {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return title != null ? new WikiSearchResult(title, snippet) : null;
+    }
+
+    public String getTitle()
+    {
+        return title;
+    }
+
+    public String getSnippet()
+    {
+        return snippet;
+    }
+}
@@ -0,0 +1,237 @@
+package com.runeliteagent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a plaintext page extract into its sections and ranks them against a query.
+ * TextExtracts marks headings as {@code == Heading ==} lines, with more equals signs for
+ * deeper levels.
+ */
+public final class WikiSections
+{
+    private static final Pattern HEADING = Pattern.compile("^(={2,6})\\s*(.+?)\\s*\\1\\s*$");
+    private static final float HEADING_WEIGHT = 3f;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private WikiSections()
+    {
+    }
+
+    /**
+     * Split an extract into sections in page order. The text before the first heading becomes
+     * an introduction with an empty heading. Each section's text runs to the next heading of the
+     * same or a higher level, so it includes its subsections.
+     */
+    public static List<Section> parse(String extract)
+    {
+        String[] lines = extract.split("\n");
+        List<int[]> starts = new ArrayList<>();
+        List<String> headings = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++)
+        {
+            Matcher m = HEADING.matcher(lines[i].trim());
+            if (m.matches())
+            {
+                starts.add(new int[]{i, m.group(1).length()});
+                headings.add(m.group(2));
+            }
+        }
+
+        List<Section> sections = new ArrayList<>();
+        int introEnd = starts.isEmpty() ? lines.length : starts.get(0)[0];
+        String intro = join(lines, 0, introEnd);
+        if (!intro.isEmpty())
+        {
+            sections.add(new Section("", 1, intro, intro));
+        }
+
+        for (int s = 0; s < starts.size(); s++)
+        {
+            int start = starts.get(s)[0];
+            int level = starts.get(s)[1];
+            int ownEnd = s + 1 < starts.size() ? starts.get(s + 1)[0] : lines.length;
+            int end = lines.length;
+            for (int next = s + 1; next < starts.size(); next++)
+            {
+                if (starts.get(next)[1] <= level)
+                {
+                    end = starts.get(next)[0];
+                    break;
+                }
+            }
+            String own = join(lines, start + 1, ownEnd);
+            sections.add(new Section(headings.get(s), level, join(lines, start, end), own));
+        }
+        return sections;
+    }
+
+    /**
+     * Rank sections with BM25 over each heading (weighted up) and the section's own text,
+     * excluding its subsections so that a parent does not outrank its best child by
+     * containing it. Sections inside an already chosen section are skipped.
+     *
+     * @return up to max matching sections, in page order; empty if none matches
+     */
+    public static List<Section> rank(List<Section> sections, String query, int max)
+    {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(WikiSearchIndex.tokenize(query)));
+        if (terms.isEmpty() || sections.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        List<Map<String, Float>> weights = new ArrayList<>(sections.size());
+        float[] lengths = new float[sections.size()];
+        float totalLength = 0;
+        for (int i = 0; i < sections.size(); i++)
+        {
+            Section section = sections.get(i);
+            Map<String, Float> tf = new HashMap<>();
+            for (String term : WikiSearchIndex.tokenize(section.getHeading()))
+            {
+                tf.merge(term, HEADING_WEIGHT, Float::sum);
+                lengths[i] += HEADING_WEIGHT;
+            }
+            for (String term : WikiSearchIndex.tokenize(section.ownText))
+            {
+                tf.merge(term, 1f, Float::sum);
+                lengths[i]++;
+            }
+            weights.add(tf);
+            totalLength += lengths[i];
+        }
+
+        double averageLength = Math.max(1, totalLength / sections.size());
+        float[] scores = new float[sections.size()];
+        for (String term : terms)
+        {
+            int frequency = 0;
+            for (Map<String, Float> tf : weights)
+            {
+                if (tf.containsKey(term))
+                {
+                    frequency++;
+                }
+            }
+            double idf = Math.log(1 + (sections.size() - frequency + 0.5) / (frequency + 0.5));
+            for (int i = 0; i < sections.size(); i++)
+            {
+                Float tf = weights.get(i).get(term);
+                if (tf != null)
+                {
+                    double norm = K1 * (1 - B + B * lengths[i] / averageLength);
+                    scores[i] += (float) (idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+        }
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++)
+        {
+            if (scores[i] > 0)
+            {
+                order.add(i);
+            }
+        }
+        order.sort((a, b) -> Float.compare(scores[b], scores[a]));
+
+        List<Integer> chosen = new ArrayList<>();
+        for (int i : order)
+        {
+            if (chosen.size() >= max)
+            {
+                break;
+            }
+            if (chosen.stream().noneMatch(c -> contains(sections, c, i) || contains(sections, i, c)))
+            {
+                chosen.add(i);
+            }
+        }
+        Collections.sort(chosen);
+
+        List<Section> result = new ArrayList<>(chosen.size());
+        for (int i : chosen)
+        {
+            result.add(sections.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Whether the section at inner lies within the section at outer.
+     */
+    private static boolean contains(List<Section> sections, int outer, int inner)
+    {
+        if (inner <= outer || sections.get(outer).getHeading().isEmpty())
+        {
+            return false;
+        }
+        int level = sections.get(outer).getLevel();
+        for (int i = outer + 1; i <= inner; i++)
+        {
+            if (sections.get(i).getLevel() <= level)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String join(String[] lines, int from, int to)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++)
+        {
+            sb.append(lines[i]).append('\n');
+        }
+        return sb.toString().trim();
+    }
+
+    public static final class Section
+    {
+        private final String heading;
+        private final int level;
+        private final String text;
+        private final String ownText;
+
+        Section(String heading, int level, String text, String ownText)
+        {
+            this.heading = heading;
+            this.level = level;
+            this.text = text;
+            this.ownText = ownText;
+        }
+
+        /**
+         * @return the heading, or an empty string for the introduction
+         */
+        public String getHeading()
+        {
+            return heading;
+        }
+
+        /**
+         * @return the heading level, 2 for {@code == Heading ==}
+         */
+        public int getLevel()
+        {
+            return level;
+        }
+
+        /**
+         * @return the heading line and everything under it, subsections included
+         */
+        public String getText()
+        {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.runeliteagent;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import org.junit.Test;
+
+/**
+ * Drives the real orchestrator loop through scripted conversations against a {@link StandInServer},
+ * on the same HTTP stack the plugin uses.
+ */
+public class AgentOrchestratorTest
+{
+    private StandInServer server;
+    private SharedHttpClient sharedClient;
+    private OsrsWikiClient wikiClient;
+    private AgentOrchestrator orchestrator;
+    private File wikiStoreDir;
+
+    @After
+    public void tearDown()
+    {
+        if (orchestrator != null)
+        {
+            orchestrator.shutdown();
+        }
+        if (wikiClient != null)
+        {
+            wikiClient.shutdown();
+        }
+        if (sharedClient != null)
+        {
+            sharedClient.shutdown();
+        }
+        if (server != null)
+        {
+            server.close();
+        }
+        delete(wikiStoreDir);
+    }
+
+    @Test
+    public void vorkathDrops() throws Exception
+    {
+        start(true);
+        List<TurnTrace> traces = replay("vorkath-drops");
+
+        assertEquals(1, traces.size());
+        assertEquals(3, traces.get(0).getIterations());
+        assertEquals(Arrays.asList("get_item_price", "get_wiki_page", "search_wiki"), toolNames(traces.get(0)));
+        assertEquals(0, server.getPendingResponses());
+        assertEquals(3, server.getMessageRequests());
+    }
+
+    @Test
+    public void vorkathDropsWithoutStreaming() throws Exception
+    {
+        start(false);
+        List<TurnTrace> traces = replay("vorkath-drops");
+
+        assertEquals(1, traces.size());
+        assertEquals(3, traces.get(0).getIterations());
+        assertEquals(0, server.getPendingResponses());
+    }
+
+    @Test
+    public void vorkathGear() throws Exception
+    {
+        start(true);
+        List<TurnTrace> traces = replay("vorkath-gear");
+
+        assertEquals(1, traces.size());
+        assertEquals(2, traces.get(0).getIterations());
+        assertEquals(Arrays.asList("get_wiki_pages"), toolNames(traces.get(0)));
+        assertEquals(0, server.getPendingResponses());
+        assertEquals(2, server.getMessageRequests());
+    }
+
+    private void start(boolean stream) throws IOException
+    {
+        server = new StandInServer(0, 0);
+        sharedClient = new SharedHttpClient(new OkHttpClient());
+        OkHttpClient httpClient = sharedClient.getClient();
+        ClaudeAgentConfig config = ReplayHarness.standInConfig(server, stream);
+        wikiStoreDir = Files.createTempDirectory("standin-wiki").toFile();
+        wikiClient = new OsrsWikiClient(config, httpClient, new WikiPageStore(wikiStoreDir));
+        ClaudeApiClient apiClient = new ClaudeApiClient(ReplayHarness.standInSettings(server)::get, httpClient);
+        orchestrator = new AgentOrchestrator(apiClient, new RuneLiteController(null, null), wikiClient, config);
+    }
+
+    /**
+     * Run every prompt of a script as one turn each, failing on any turn that errors or times out.
+     */
+    private List<TurnTrace> replay(String scriptName) throws Exception
+    {
+        JsonObject script = JsonParser.parseString(StandInServer.fixture("scripts/" + scriptName + ".json")).getAsJsonObject();
+        server.enqueueResponses(ReplayHarness.strings(script, "responses"));
+
+        List<TurnTrace> traces = new ArrayList<>();
+        for (String prompt : ReplayHarness.strings(script, "prompts"))
+        {
+            TurnTrace trace = ReplayHarness.runTurn(orchestrator, prompt);
+            assertNotNull("Turn failed: " + prompt, trace);
+            traces.add(trace);
+        }
+        return traces;
+    }
+
+    /**
+     * Names of the tools a turn ran, sorted, since the tools of one response run in parallel.
+     */
+    private static List<String> toolNames(TurnTrace trace)
+    {
+        List<String> names = new ArrayList<>();
+        for (TurnTrace.ToolTiming timing : trace.getToolTimings())
+        {
+            names.add(timing.getName());
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private static void delete(File file)
+    {
+        if (file == null)
+        {
+            return;
+        }
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,241 @@
+package com.runeliteagent;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ContextManagerTest
+{
+    private static final String SUMMARY_PREFIX = "[Summary of earlier conversation]";
+    private static final String STUB_PREFIX = "[Earlier tool result omitted";
+
+    private final ContextManager contextManager = new ContextManager(new ClaudeAgentConfig()
+    {
+        @Override
+        public int contextTokenCeiling()
+        {
+            return 10000;
+        }
+
+        @Override
+        public int toolResultTokenBudget()
+        {
+            return 1000;
+        }
+    });
+
+    @Test
+    public void currentTurnIsNeverStubbed()
+    {
+        JsonArray history = new JsonArray();
+        addToolTurn(history, 1, 600);
+        addQuestion(history, "current");
+        history.add(toolUse("current"));
+        history.add(toolResult("current", 3000));
+
+        contextManager.compact(history);
+
+        assertTrue(resultText(history, 2).startsWith(STUB_PREFIX));
+        assertFalse(resultText(history, 6).startsWith(STUB_PREFIX));
+    }
+
+    @Test
+    public void stubsInBatchesSoEarlierMessagesStayUnchanged()
+    {
+        JsonArray history = new JsonArray();
+        for (int turn = 1; turn <= 3; turn++)
+        {
+            addToolTurn(history, turn, 300);
+        }
+
+        // The fourth result takes the total past the budget, so older results are stubbed to half of it
+        addQuestion(history, "question 4");
+        history.add(toolUse("4"));
+        history.add(toolResult("4", 300));
+        contextManager.compact(history);
+        for (int turn = 0; turn < 3; turn++)
+        {
+            assertTrue(resultText(history, turn * 4 + 2).startsWith(STUB_PREFIX));
+        }
+        assertFalse(resultText(history, 14).startsWith(STUB_PREFIX));
+        history.add(text("assistant", "answer 4"));
+
+        // The next turn stays under the budget, so nothing before it is rewritten
+        JsonElement[] before = new JsonElement[history.size()];
+        for (int i = 0; i < before.length; i++)
+        {
+            before[i] = history.get(i);
+        }
+        addQuestion(history, "question 5");
+        history.add(toolUse("5"));
+        history.add(toolResult("5", 300));
+        contextManager.compact(history);
+        for (int i = 0; i < before.length; i++)
+        {
+            assertSame(before[i], history.get(i));
+        }
+    }
+
+    @Test
+    public void rolesAlternateAfterCompactionRollbackAndNewTurn()
+    {
+        JsonArray history = new JsonArray();
+        for (int turn = 1; turn <= 3; turn++)
+        {
+            addQuestion(history, "question " + turn + " " + repeat(8000));
+            history.add(text("assistant", "answer " + turn + " " + repeat(8000)));
+        }
+        // A long enough question folds every earlier turn into a summary carried on it
+        addQuestion(history, "question 4 " + repeat(24000));
+        contextManager.compact(history);
+        assertEquals(1, history.size());
+        assertTrue(firstText(history.get(0)).startsWith(SUMMARY_PREFIX));
+        history.add(toolUse("4"));
+        history.add(toolResult("4", 100));
+        assertAlternates(history);
+
+        ContextManager.removeLastTurn(history);
+        assertEquals(1, history.size());
+        assertTrue(firstText(history.get(0)).startsWith(SUMMARY_PREFIX));
+
+        JsonObject next = message("user", block("question 5"));
+        ContextManager.addTurnStart(history, next);
+        history.add(text("assistant", "answer 5"));
+        assertAlternates(history);
+        JsonArray content = history.get(0).getAsJsonObject().getAsJsonArray("content");
+        assertEquals(2, content.size());
+        assertTrue(content.get(0).getAsJsonObject().get("text").getAsString().startsWith(SUMMARY_PREFIX));
+        assertEquals("question 5", content.get(1).getAsJsonObject().get("text").getAsString());
+    }
+
+    @Test
+    public void summarySurvivesRemoveLastTurn()
+    {
+        JsonArray history = new JsonArray();
+        history.add(message("user", block(SUMMARY_PREFIX + "\n- User: earlier"), block("question 1")));
+        history.add(text("assistant", "answer 1"));
+        addQuestion(history, "question 2");
+        history.add(toolUse("2"));
+
+        ContextManager.removeLastTurn(history);
+        assertEquals(2, history.size());
+        assertTrue(firstText(history.get(0)).startsWith(SUMMARY_PREFIX));
+
+        ContextManager.removeLastTurn(history);
+        assertEquals(1, history.size());
+        assertEquals(SUMMARY_PREFIX + "\n- User: earlier", firstText(history.get(0)));
+    }
+
+    @Test
+    public void addTurnStartAppendsWhenThereIsNoLoneSummary()
+    {
+        JsonArray history = new JsonArray();
+        addQuestion(history, "question 1");
+        history.add(text("assistant", "answer 1"));
+
+        JsonObject next = message("user", block("question 2"));
+        ContextManager.addTurnStart(history, next);
+        assertEquals(3, history.size());
+        assertSame(next, history.get(2));
+    }
+
+    private static void assertAlternates(JsonArray history)
+    {
+        String expected = "user";
+        for (JsonElement message : history)
+        {
+            assertEquals(expected, message.getAsJsonObject().get("role").getAsString());
+            expected = "user".equals(expected) ? "assistant" : "user";
+        }
+    }
+
+    private static void addToolTurn(JsonArray history, int turn, int resultTokens)
+    {
+        addQuestion(history, "question " + turn);
+        history.add(toolUse(Integer.toString(turn)));
+        history.add(toolResult(Integer.toString(turn), resultTokens));
+        history.add(text("assistant", "answer " + turn));
+    }
+
+    private static void addQuestion(JsonArray history, String question)
+    {
+        history.add(text("user", question));
+    }
+
+    private static JsonObject text(String role, String text)
+    {
+        return message(role, block(text));
+    }
+
+    private static JsonObject toolUse(String id)
+    {
+        JsonObject block = new JsonObject();
+        block.addProperty("type", "tool_use");
+        block.addProperty("id", id);
+        block.addProperty("name", "get_wiki_page");
+        block.add("input", new JsonObject());
+        return message("assistant", block);
+    }
+
+    private static JsonObject toolResult(String id, int tokens)
+    {
+        JsonObject block = new JsonObject();
+        block.addProperty("type", "tool_result");
+        block.addProperty("tool_use_id", id);
+        block.addProperty("content", repeat(tokens * 4));
+        return message("user", block);
+    }
+
+    private static JsonObject block(String text)
+    {
+        JsonObject block = new JsonObject();
+        block.addProperty("type", "text");
+        block.addProperty("text", text);
+        return block;
+    }
+
+    private static JsonObject message(String role, JsonObject... blocks)
+    {
+        JsonArray content = new JsonArray();
+        for (JsonObject block : blocks)
+        {
+            content.add(block);
+        }
+        JsonObject message = new JsonObject();
+        message.addProperty("role", role);
+        message.add("content", content);
+        return message;
+    }
+
+    private static String resultText(JsonArray history, int index)
+    {
+        JsonObject message = history.get(index).getAsJsonObject();
+        JsonObject block = message.getAsJsonArray("content").get(0).getAsJsonObject();
+        assertEquals("tool_result", block.get("type").getAsString());
+        return block.get("content").getAsString();
+    }
+
+    private static String firstText(JsonElement message)
+    {
+        JsonObject block = message.getAsJsonObject().getAsJsonArray("content").get(0).getAsJsonObject();
+        assertNotEquals("tool_result", block.get("type").getAsString());
+        return block.get("text").getAsString();
+    }
+
+    private static String repeat(int chars)
+    {
+        StringBuilder sb = new StringBuilder(chars);
+        while (sb.length() < chars)
+        {
+            sb.append("lorem ");
+        }
+        sb.setLength(chars);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.runeliteagent;
+
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class PluginIndexTest
+{
+    private final PluginIndex index = new PluginIndex(Arrays.asList(
+        entry("Ground Items", "Highlight ground items and/or show price information", "grand", "exchange", "loot"),
+        entry("Ground Markers", "Enable marking of tiles using the Shift key", "overlay", "tiles"),
+        entry("Agility", "Show helpful information about agility courses and obstacles", "grace", "marks", "rooftop"),
+        entry("Boosts Information", "Show combat and/or skill boost information", "combat", "overlay")));
+
+    @Test
+    public void exactNameIsConfident()
+    {
+        PluginIndex.Resolution resolution = index.resolve("ground items");
+        assertEquals("Ground Items", resolution.getBest().getEntry().getName());
+        assertEquals(1.0, resolution.getBest().getScore(), 0);
+        assertFalse(resolution.isAmbiguous());
+        assertTrue(resolution.isConfident());
+    }
+
+    @Test
+    public void uniquePrefixIsConfident()
+    {
+        PluginIndex.Resolution resolution = index.resolve("ground it");
+        assertEquals("Ground Items", resolution.getBest().getEntry().getName());
+        assertFalse(resolution.isAmbiguous());
+        assertTrue(resolution.isConfident());
+    }
+
+    @Test
+    public void typoResolvesButNeedsConfirmation()
+    {
+        PluginIndex.Resolution resolution = index.resolve("groud itms");
+        assertEquals("Ground Items", resolution.getBest().getEntry().getName());
+        assertFalse(resolution.isConfident());
+    }
+
+    @Test
+    public void tiedPrefixMatchesAreAmbiguous()
+    {
+        PluginIndex.Resolution resolution = index.resolve("ground");
+        assertEquals(2, resolution.getCandidates().size());
+        assertEquals(resolution.getCandidates().get(0).getScore(), resolution.getCandidates().get(1).getScore(), 0);
+        assertTrue(resolution.isAmbiguous());
+        assertFalse(resolution.isConfident());
+    }
+
+    @Test
+    public void tagOrDescriptionMatchNeedsConfirmation()
+    {
+        PluginIndex.Resolution resolution = index.resolve("rooftop");
+        assertEquals("Agility", resolution.getBest().getEntry().getName());
+        assertFalse(resolution.isConfident());
+    }
+
+    @Test
+    public void unrelatedNameHasNoCandidates()
+    {
+        PluginIndex.Resolution resolution = index.resolve("xyzzy");
+        assertNull(resolution.getBest());
+        assertFalse(resolution.isConfident());
+    }
+
+    private static PluginIndex.Entry entry(String name, String description, String... tags)
+    {
+        return new PluginIndex.Entry(null, name, description, tags);
+    }
+}
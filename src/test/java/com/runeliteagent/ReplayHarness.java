@@ -0,0 +1,195 @@
+package com.runeliteagent;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.OkHttpClient;
+
+/**
+ * Replays a scripted conversation through the real orchestrator loop against a
+ * {@link StandInServer}, with no network and no client. Prints per-turn traces, latency
+ * percentiles, tool-iteration counts, stand-in request totals and retained heap.
+ * <p>
+ * Usage: {@code ReplayHarness [script] [runs] [latencyMs] [eventDelayMs] [stream]}, e.g.
+ * {@code ./gradlew replayHarness -PreplayArgs="vorkath-drops 20 150 10 true"}. Scripts live in
+ * {@code src/test/resources/standin/scripts} and list the prompts of one conversation and the
+ * Messages API fixtures the stand-in answers with, in order. Scripts only use wiki and price
+ * tools, since the RuneLite tools need a running client.
+ */
+public class ReplayHarness
+{
+    private static final long TURN_TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) throws Exception
+    {
+        String scriptName = args.length > 0 ? args[0] : "vorkath-drops";
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int latencyMillis = args.length > 2 ? Integer.parseInt(args[2]) : 150;
+        int eventDelayMillis = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        boolean stream = args.length <= 4 || Boolean.parseBoolean(args[4]);
+
+        JsonObject script = JsonParser.parseString(StandInServer.fixture("scripts/" + scriptName + ".json")).getAsJsonObject();
+        List<String> prompts = strings(script, "prompts");
+        List<String> responses = strings(script, "responses");
+
+        // The same stack the plugin builds on RuneLite's client, so pooling and limits match production
+        SharedHttpClient sharedClient = new SharedHttpClient(new OkHttpClient());
+        OkHttpClient httpClient = sharedClient.getClient();
+        try (StandInServer server = new StandInServer(latencyMillis, eventDelayMillis))
+        {
+            ClaudeAgentConfig config = standInConfig(server, stream);
+            ClaudeApiClient apiClient = new ClaudeApiClient(standInSettings(server)::get, httpClient);
+            OsrsWikiClient wikiClient = new OsrsWikiClient(config, httpClient,
+                new WikiPageStore(Files.createTempDirectory("standin-wiki").toFile()));
+            AgentOrchestrator orchestrator = new AgentOrchestrator(apiClient, new RuneLiteController(null, null), wikiClient, config);
+            SessionMetrics metrics = new SessionMetrics();
+            int failures = 0;
+
+            System.out.println("Replaying '" + scriptName + "' x" + runs + " against " + server.getBaseUrl()
+                + " (latency " + latencyMillis + "ms, event delay " + eventDelayMillis + "ms, "
+                + (stream ? "streaming" : "non-streaming") + ")");
+            try
+            {
+                for (int run = 0; run < runs; run++)
+                {
+                    orchestrator.clearHistory();
+                    server.enqueueResponses(responses);
+                    for (String prompt : prompts)
+                    {
+                        TurnTrace trace = runTurn(orchestrator, prompt);
+                        if (trace == null)
+                        {
+                            failures++;
+                            continue;
+                        }
+                        metrics.record(trace);
+                        System.out.println("run " + (run + 1) + ": " + trace);
+                    }
+                    if (server.getPendingResponses() > 0)
+                    {
+                        System.out.println("run " + (run + 1) + ": " + server.getPendingResponses()
+                            + " scripted responses were not requested");
+                        failures++;
+                        server.clearResponses();
+                    }
+                }
+            }
+            finally
+            {
+                orchestrator.shutdown();
+                wikiClient.shutdown();
+            }
+
+            System.out.println();
+            System.out.println(metrics.render());
+            System.out.println("Stand-in: " + server.getMessageRequests() + " Messages API requests ("
+                + server.getMessageRequestBytes() / Math.max(1, server.getMessageRequests()) + " bytes avg), "
+                + server.getWikiRequests() + " wiki requests, " + server.getPriceRequests() + " price requests");
+            System.out.println("Wiki prefetch: " + wikiClient.getPrefetchStats());
+            System.out.println("Failures: " + failures);
+            System.out.println("Heap after GC: " + usedHeapMegabytes() + " MB");
+        }
+        finally
+        {
+            sharedClient.shutdown();
+        }
+    }
+
+    /**
+     * Plugin config pointing every endpoint at the stand-in.
+     */
+    static ClaudeAgentConfig standInConfig(StandInServer server, boolean stream)
+    {
+        return new ClaudeAgentConfig()
+        {
+            @Override
+            public boolean streamResponses()
+            {
+                return stream;
+            }
+
+            @Override
+            public String apiBaseUrl()
+            {
+                return server.getBaseUrl();
+            }
+
+            @Override
+            public String wikiApiUrl()
+            {
+                return server.getWikiApiUrl();
+            }
+
+            @Override
+            public String pricesApiUrl()
+            {
+                return server.getPricesApiUrl();
+            }
+        };
+    }
+
+    /**
+     * The raw settings ClaudeApiClient reads its key and base URL from.
+     */
+    static Map<String, String> standInSettings(StandInServer server)
+    {
+        Map<String, String> settings = new HashMap<>();
+        settings.put("apiKey", "stand-in");
+        settings.put("apiBaseUrl", server.getBaseUrl());
+        return settings;
+    }
+
+    /**
+     * Run one turn to completion, returning its trace, or null if it failed or timed out.
+     */
+    static TurnTrace runTurn(AgentOrchestrator orchestrator, String prompt) throws InterruptedException
+    {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> error = new AtomicReference<>();
+        AgentTurn turn = orchestrator.sendMessage(prompt,
+            chunk -> { },
+            response -> done.countDown(),
+            message -> {
+                error.set(message);
+                done.countDown();
+            });
+
+        if (!done.await(TURN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        {
+            turn.cancel();
+            System.out.println("Turn timed out after " + TURN_TIMEOUT_SECONDS + "s: " + prompt);
+            return null;
+        }
+        if (error.get() != null)
+        {
+            System.out.println("Turn failed: " + error.get());
+            return null;
+        }
+        return turn.getTrace();
+    }
+
+    static List<String> strings(JsonObject object, String field)
+    {
+        List<String> values = new ArrayList<>();
+        for (JsonElement element : object.getAsJsonArray(field))
+        {
+            values.add(element.getAsString());
+        }
+        return values;
+    }
+
+    private static long usedHeapMegabytes()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+    }
+}
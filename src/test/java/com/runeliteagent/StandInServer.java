@@ -0,0 +1,493 @@
+package com.runeliteagent;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded stand-in for the Anthropic Messages API, the OSRS Wiki api.php and the prices API,
+ * serving fixtures from the {@code /standin} classpath directory on a loopback port.
+ * <p>
+ * Messages API responses are replayed from a queue of fixture names, one per request. A
+ * streaming request gets {@code messages/<name>.sse} verbatim when that recording exists,
+ * otherwise an event stream synthesized from {@code messages/<name>.json}. Every response waits
+ * {@code latencyMillis} before the first byte, and stream events are spaced by
+ * {@code eventDelayMillis}.
+ */
+public class StandInServer implements AutoCloseable
+{
+    private static final Gson GSON = new Gson();
+    private static final String FIXTURES = "/standin/";
+    private static final int TEXT_DELTA_CHARS = 12;
+    private static final int JSON_DELTA_CHARS = 24;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int latencyMillis;
+    private final int eventDelayMillis;
+    private final Queue<String> messageResponses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger messageRequests = new AtomicInteger();
+    private final AtomicLong messageRequestBytes = new AtomicLong();
+    private final AtomicInteger wikiRequests = new AtomicInteger();
+    private final AtomicInteger priceRequests = new AtomicInteger();
+
+    public StandInServer(int latencyMillis, int eventDelayMillis) throws IOException
+    {
+        this.latencyMillis = latencyMillis;
+        this.eventDelayMillis = eventDelayMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "standin-server");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/v1/messages", this::handleMessages);
+        server.createContext("/api.php", this::handleWiki);
+        server.createContext("/prices/", this::handlePrices);
+        server.start();
+    }
+
+    public String getBaseUrl()
+    {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public String getWikiApiUrl()
+    {
+        return getBaseUrl() + "/api.php";
+    }
+
+    public String getPricesApiUrl()
+    {
+        return getBaseUrl() + "/prices";
+    }
+
+    /**
+     * Queue Messages API responses, by fixture name, for the next requests in order.
+     */
+    public void enqueueResponses(Collection<String> fixtureNames)
+    {
+        messageResponses.addAll(fixtureNames);
+    }
+
+    public void clearResponses()
+    {
+        messageResponses.clear();
+    }
+
+    public int getPendingResponses()
+    {
+        return messageResponses.size();
+    }
+
+    public int getMessageRequests()
+    {
+        return messageRequests.get();
+    }
+
+    public long getMessageRequestBytes()
+    {
+        return messageRequestBytes.get();
+    }
+
+    public int getWikiRequests()
+    {
+        return wikiRequests.get();
+    }
+
+    public int getPriceRequests()
+    {
+        return priceRequests.get();
+    }
+
+    @Override
+    public void close()
+    {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleMessages(HttpExchange ex) throws IOException
+    {
+        // HttpExchange is only AutoCloseable from Java 14
+        try
+        {
+            if (!"POST".equals(ex.getRequestMethod()))
+            {
+                respond(ex, 200, "application/json", "{}");
+                return;
+            }
+
+            byte[] body = readAll(ex.getRequestBody());
+            messageRequests.incrementAndGet();
+            messageRequestBytes.addAndGet(body.length);
+            JsonObject request = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+            boolean stream = request.has("stream") && request.get("stream").getAsBoolean();
+
+            String name = messageResponses.poll();
+            sleep(latencyMillis);
+            if (name == null)
+            {
+                respond(ex, 500, "application/json",
+                    "{\"type\":\"error\",\"error\":{\"type\":\"api_error\",\"message\":\"Stand-in has no scripted response left\"}}");
+                return;
+            }
+
+            if (!stream)
+            {
+                respond(ex, 200, "application/json", fixture("messages/" + name + ".json"));
+                return;
+            }
+
+            String recorded = optionalFixture("messages/" + name + ".sse");
+            List<String> events = recorded != null
+                ? splitEvents(recorded)
+                : synthesizeEvents(JsonParser.parseString(fixture("messages/" + name + ".json")).getAsJsonObject());
+            ex.getResponseHeaders().set("Content-Type", "text/event-stream");
+            ex.sendResponseHeaders(200, 0);
+            OutputStream out = ex.getResponseBody();
+            for (String event : events)
+            {
+                out.write((event + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                sleep(eventDelayMillis);
+            }
+        }
+        finally
+        {
+            ex.close();
+        }
+    }
+
+    private void handleWiki(HttpExchange ex) throws IOException
+    {
+        try
+        {
+            wikiRequests.incrementAndGet();
+            sleep(latencyMillis);
+            if ("HEAD".equals(ex.getRequestMethod()))
+            {
+                ex.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            Map<String, String> params = query(ex);
+            String fixture;
+            if (params.containsKey("srsearch"))
+            {
+                fixture = firstFixture("wiki/search-" + slug(params.get("srsearch")) + ".json", "wiki/search.json");
+            }
+            else if (params.containsKey("titles"))
+            {
+                fixture = GSON.toJson(pages(params.get("titles").split("\\|"), params.getOrDefault("prop", ""),
+                    params.containsKey("exintro")));
+            }
+            else
+            {
+                fixture = "{}";
+            }
+            respond(ex, 200, "application/json", fixture);
+        }
+        finally
+        {
+            ex.close();
+        }
+    }
+
+    private void handlePrices(HttpExchange ex) throws IOException
+    {
+        try
+        {
+            priceRequests.incrementAndGet();
+            sleep(latencyMillis);
+            if ("HEAD".equals(ex.getRequestMethod()))
+            {
+                ex.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            String path = ex.getRequestURI().getPath();
+            String endpoint = path.substring(path.lastIndexOf('/') + 1);
+            String fixture = optionalFixture("prices/" + endpoint + ".json");
+            if (fixture == null)
+            {
+                respond(ex, 404, "application/json", "{\"error\":\"Not found\"}");
+                return;
+            }
+            respond(ex, 200, "application/json", fixture);
+        }
+        finally
+        {
+            ex.close();
+        }
+    }
+
+    /**
+     * A prop=extracts/revisions response for several titles, built from {@code wiki/page-<slug>.json}
+     * fixtures or the default {@code wiki/page.json} when its title matches. Titles without a
+     * fixture come back missing, and extracts are left out unless they were asked for.
+     * <p>
+     * Like the real API, which treats any boolean parameter that is present as true, an
+     * {@code exintro} parameter with any value cuts each extract to the text before its first heading.
+     */
+    private static JsonObject pages(String[] titles, String props, boolean introOnly) throws IOException
+    {
+        JsonObject fallback = JsonParser.parseString(fixture("wiki/page.json")).getAsJsonObject();
+        JsonObject pages = new JsonObject();
+        int missing = 0;
+        for (String title : titles)
+        {
+            String fixture = optionalFixture("wiki/page-" + slug(title) + ".json");
+            JsonObject source = fixture != null ? JsonParser.parseString(fixture).getAsJsonObject() : fallback;
+            boolean found = false;
+            for (Map.Entry<String, JsonElement> entry : source.getAsJsonObject("query").getAsJsonObject("pages").entrySet())
+            {
+                JsonObject page = entry.getValue().getAsJsonObject().deepCopy();
+                if (fixture == null && !WikiPageStore.normalizeTitle(title).equals(page.get("title").getAsString()))
+                {
+                    continue;
+                }
+                if (!props.contains("extracts"))
+                {
+                    page.remove("extract");
+                }
+                else if (introOnly && page.has("extract"))
+                {
+                    page.addProperty("extract", intro(page.get("extract").getAsString()));
+                }
+                pages.add(entry.getKey(), page);
+                found = true;
+            }
+            if (!found)
+            {
+                JsonObject page = new JsonObject();
+                page.addProperty("ns", 0);
+                page.addProperty("title", WikiPageStore.normalizeTitle(title));
+                page.addProperty("missing", "");
+                pages.add(Integer.toString(--missing), page);
+            }
+        }
+        return object("query", object("pages", pages));
+    }
+
+    private static String intro(String extract)
+    {
+        int heading = extract.startsWith("==") ? 0 : extract.indexOf("\n==");
+        return heading < 0 ? extract : extract.substring(0, heading).trim();
+    }
+
+    /**
+     * Rebuild the event stream the Messages API would have sent for a complete message.
+     */
+    static List<String> synthesizeEvents(JsonObject message)
+    {
+        List<String> events = new ArrayList<>();
+
+        JsonObject start = message.deepCopy();
+        start.add("content", new JsonArray());
+        start.add("stop_reason", null);
+        JsonObject startUsage = start.has("usage") ? start.getAsJsonObject("usage") : new JsonObject();
+        int outputTokens = ClaudeApiClient.usageCount(startUsage, "output_tokens");
+        startUsage.addProperty("output_tokens", 1);
+        start.add("usage", startUsage);
+        events.add(event("message_start", object("message", start)));
+        events.add(event("ping", new JsonObject()));
+
+        JsonArray content = message.getAsJsonArray("content");
+        for (int i = 0; i < content.size(); i++)
+        {
+            JsonObject block = content.get(i).getAsJsonObject();
+            String type = block.get("type").getAsString();
+
+            JsonObject startBlock = block.deepCopy();
+            String body;
+            String deltaType;
+            String deltaField;
+            int pieceChars;
+            if ("tool_use".equals(type))
+            {
+                startBlock.add("input", new JsonObject());
+                body = GSON.toJson(block.get("input"));
+                deltaType = "input_json_delta";
+                deltaField = "partial_json";
+                pieceChars = JSON_DELTA_CHARS;
+            }
+            else
+            {
+                startBlock.addProperty("text", "");
+                body = block.has("text") ? block.get("text").getAsString() : "";
+                deltaType = "text_delta";
+                deltaField = "text";
+                pieceChars = TEXT_DELTA_CHARS;
+            }
+
+            JsonObject blockStart = object("content_block", startBlock);
+            blockStart.addProperty("index", i);
+            events.add(event("content_block_start", blockStart));
+
+            for (int offset = 0; offset < body.length(); offset += pieceChars)
+            {
+                JsonObject delta = new JsonObject();
+                delta.addProperty("type", deltaType);
+                delta.addProperty(deltaField, body.substring(offset, Math.min(body.length(), offset + pieceChars)));
+                JsonObject blockDelta = object("delta", delta);
+                blockDelta.addProperty("index", i);
+                events.add(event("content_block_delta", blockDelta));
+            }
+
+            JsonObject blockStop = new JsonObject();
+            blockStop.addProperty("index", i);
+            events.add(event("content_block_stop", blockStop));
+        }
+
+        JsonObject delta = new JsonObject();
+        delta.add("stop_reason", message.get("stop_reason"));
+        delta.add("stop_sequence", null);
+        JsonObject messageDelta = object("delta", delta);
+        JsonObject usage = new JsonObject();
+        usage.addProperty("output_tokens", outputTokens);
+        messageDelta.add("usage", usage);
+        events.add(event("message_delta", messageDelta));
+        events.add(event("message_stop", new JsonObject()));
+        return events;
+    }
+
+    private static JsonObject object(String field, JsonElement value)
+    {
+        JsonObject object = new JsonObject();
+        object.add(field, value);
+        return object;
+    }
+
+    private static String event(String type, JsonObject data)
+    {
+        JsonObject typed = new JsonObject();
+        typed.addProperty("type", type);
+        for (Map.Entry<String, JsonElement> entry : data.entrySet())
+        {
+            typed.add(entry.getKey(), entry.getValue());
+        }
+        return "event: " + type + "\ndata: " + GSON.toJson(typed);
+    }
+
+    private static List<String> splitEvents(String recorded)
+    {
+        List<String> events = new ArrayList<>();
+        for (String event : recorded.replace("\r\n", "\n").split("\n\n"))
+        {
+            if (!event.trim().isEmpty())
+            {
+                events.add(event.trim());
+            }
+        }
+        return events;
+    }
+
+    private static Map<String, String> query(HttpExchange ex)
+    {
+        Map<String, String> params = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null)
+        {
+            return params;
+        }
+        for (String pair : raw.split("&"))
+        {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(key, URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    static String slug(String text)
+    {
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+    }
+
+    private static String firstFixture(String preferred, String fallback) throws IOException
+    {
+        String fixture = optionalFixture(preferred);
+        return fixture != null ? fixture : fixture(fallback);
+    }
+
+    static String fixture(String path) throws IOException
+    {
+        String fixture = optionalFixture(path);
+        if (fixture == null)
+        {
+            throw new IOException("Missing stand-in fixture " + FIXTURES + path);
+        }
+        return fixture;
+    }
+
+    private static String optionalFixture(String path) throws IOException
+    {
+        try (InputStream in = StandInServer.class.getResourceAsStream(FIXTURES + path))
+        {
+            return in != null ? new String(readAll(in), StandardCharsets.UTF_8) : null;
+        }
+    }
+
+    private static void respond(HttpExchange ex, int status, String contentType, String body) throws IOException
+    {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", contentType);
+        ex.sendResponseHeaders(status, bytes.length);
+        ex.getResponseBody().write(bytes);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0)
+        {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void sleep(int millis)
+    {
+        if (millis <= 0)
+        {
+            return;
+        }
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.runeliteagent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class ToolResultCacheTest
+{
+    @Test
+    public void cachesUntilInvalidated()
+    {
+        ToolResultCache cache = new ToolResultCache();
+        AtomicInteger computed = new AtomicInteger();
+
+        assertEquals("1", cache.get("k", () -> Integer.toString(computed.incrementAndGet())));
+        assertEquals("1", cache.get("k", () -> Integer.toString(computed.incrementAndGet())));
+        cache.invalidate("k");
+        assertEquals("2", cache.get("k", () -> Integer.toString(computed.incrementAndGet())));
+    }
+
+    @Test
+    public void resultComputedAcrossAnInvalidationIsNotCached()
+    {
+        ToolResultCache cache = new ToolResultCache();
+        AtomicInteger version = new AtomicInteger();
+
+        // The state changes after the value was read but before get stores it
+        String stale = cache.get("k", () -> {
+            String value = "v" + version.get();
+            version.incrementAndGet();
+            cache.invalidate("k");
+            return value;
+        });
+        assertEquals("v0", stale);
+        assertEquals("v1", cache.get("k", () -> "v" + version.get()));
+    }
+
+    @Test
+    public void invalidationBetweenCheckAndPutIsNotLost()
+    {
+        AtomicInteger version = new AtomicInteger();
+        AtomicReference<ToolResultCache> cache = new AtomicReference<>();
+        AtomicBoolean interleave = new AtomicBoolean(true);
+        Map<String, String> results = new ConcurrentHashMap<String, String>()
+        {
+            @Override
+            public String put(String key, String value)
+            {
+                // The state changes after get checked the generation but before it stores the value
+                if (interleave.getAndSet(false))
+                {
+                    version.incrementAndGet();
+                    cache.get().invalidate(key);
+                }
+                return super.put(key, value);
+            }
+        };
+        cache.set(new ToolResultCache(results));
+
+        assertEquals("v0", cache.get().get("k", () -> "v" + version.get()));
+        assertEquals("v1", cache.get().get("k", () -> "v" + version.get()));
+    }
+}